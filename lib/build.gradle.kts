@@ -50,10 +50,35 @@ testing {
         val test by getting(JvmTestSuite::class) {
             // Use TestNG test framework
             useTestNG("7.5.1")
+
+            targets {
+                all {
+                    testTask.configure {
+                        // Timing runs depend on the machine, they have their own task
+                        (options as TestNGOptions).excludeGroups("benchmark")
+                    }
+                }
+            }
         }
     }
 }
 
+tasks.register<Test>("benchmark") {
+    description = "Runs the benchmark test group and logs the timings."
+    group = "verification"
+
+    testClassesDirs = sourceSets["test"].output.classesDirs
+    classpath = sourceSets["test"].runtimeClasspath
+
+    useTestNG {
+        includeGroups("benchmark")
+    }
+
+    testLogging {
+        showStandardStreams = true
+    }
+}
+
 // Apply a specific Java toolchain to ease working on different environments.
 java {
     toolchain {
@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.brokers.paper;
+
+import relativity.brokers.types.Account;
+import relativity.brokers.types.LedgerEntry;
+import relativity.brokers.types.LedgerEntryTypeEnum;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An account's balances kept as an append-only journal with running totals.
+ * The totals are one immutable snapshot swapped in by compare and set, so a
+ * reader always sees cash, margin and committed cash from the same update and
+ * a reservation can check and debit the buying power in one step without a lock.
+ *
+ * Amounts are fixed point longs so repeated deltas don't drift like floats do.
+ */
+public class AccountLedger {
+    // Hundredths of a cent
+    static final long SCALE = 10_000L;
+
+    public final String accountId;
+
+    private final AtomicReference<Balances> balances;
+    private final ConcurrentLinkedQueue<LedgerEntry> journal = new ConcurrentLinkedQueue<>();
+
+    public static class Balances {
+        public final long cash;
+        public final long margin;
+        public final long outstandingMargin;
+        // Cash held by open orders and positions until they settle
+        public final long committedCash;
+        public final long realizedProfit;
+        public final long biggestGain;
+        public final long biggestLoss;
+
+        Balances(
+            long cash,
+            long margin,
+            long outstandingMargin,
+            long committedCash,
+            long realizedProfit,
+            long biggestGain,
+            long biggestLoss
+        ) {
+            this.cash = cash;
+            this.margin = margin;
+            this.outstandingMargin = outstandingMargin;
+            this.committedCash = committedCash;
+            this.realizedProfit = realizedProfit;
+            this.biggestGain = biggestGain;
+            this.biggestLoss = biggestLoss;
+        }
+
+        Balances apply(LedgerEntry entry) {
+            return new Balances(
+                cash + entry.cash,
+                margin + entry.margin,
+                outstandingMargin + entry.outstandingMargin,
+                committedCash + entry.committedCash,
+                realizedProfit + entry.profit,
+                entry.type == LedgerEntryTypeEnum.POSITION_SETTLED ? Math.max(biggestGain, entry.profit) : biggestGain,
+                entry.type == LedgerEntryTypeEnum.POSITION_SETTLED ? Math.min(biggestLoss, entry.profit) : biggestLoss
+            );
+        }
+
+        public float getCash() {
+            return toFloat(cash);
+        }
+
+        public float getMargin() {
+            return toFloat(margin);
+        }
+
+        public float getOutstandingMargin() {
+            return toFloat(outstandingMargin);
+        }
+
+        public float getCommittedCash() {
+            return toFloat(committedCash);
+        }
+
+        public float getTotalCash() {
+            return toFloat(cash + committedCash);
+        }
+
+        public float getBuyingPower() {
+            return toFloat(cash + margin);
+        }
+
+        public float getRealizedProfit() {
+            return toFloat(realizedProfit);
+        }
+
+        public float getBiggestGain() {
+            return toFloat(biggestGain);
+        }
+
+        public float getBiggestLoss() {
+            return toFloat(biggestLoss);
+        }
+    }
+
+    public AccountLedger(Account account) {
+        accountId = account.accountId != null ? account.accountId : account.id;
+        balances = new AtomicReference<>(new Balances(0, 0, 0, 0, 0, 0, 0));
+
+        LedgerEntry entry = newEntry(LedgerEntryTypeEnum.OPENING_BALANCE, null);
+        entry.cash = toFixed(account.cashBalance);
+        entry.margin = toFixed(account.marginBalance);
+        entry.outstandingMargin = toFixed(account.outstandingMarginBalance);
+
+        append(entry);
+    }
+
+    public Balances getBalances() {
+        return balances.get();
+    }
+
+    /**
+     * Moves cash and margin onto an open order if the account has both available
+     *
+     * @return false without touching the balances when either is short
+     */
+    public boolean reserve(String orderId, float cash, float margin) {
+        LedgerEntry entry = reservationEntry(orderId, cash, margin);
+        Balances current;
+
+        do {
+            current = balances.get();
+
+            if (current.cash < entry.committedCash || current.margin < entry.outstandingMargin) {
+                return false;
+            }
+        } while (!balances.compareAndSet(current, current.apply(entry)));
+
+        journal.add(entry);
+
+        return true;
+    }
+
+    /**
+     * Debits cash and margin without a check, the margin still has to be available
+     */
+    public Balances debit(String referenceId, float cash, float margin) {
+        LedgerEntry entry = reservationEntry(referenceId, cash, margin);
+        Balances current;
+        Balances updated;
+
+        do {
+            current = balances.get();
+
+            if (current.margin < entry.outstandingMargin) {
+                throw new Error("Margin requested can not be greater than the account's margin balance");
+            }
+
+            updated = current.apply(entry);
+        } while (!balances.compareAndSet(current, updated));
+
+        journal.add(entry);
+
+        return updated;
+    }
+
+    public Balances settle(String positionId, float cash, float margin, float profit) {
+        LedgerEntry entry = newEntry(LedgerEntryTypeEnum.POSITION_SETTLED, positionId);
+        long cashAmount = toFixed(Math.abs(cash));
+
+        entry.cash = cashAmount + toFixed(profit);
+        entry.margin = toFixed(margin);
+        entry.outstandingMargin = -toFixed(margin);
+        entry.committedCash = -cashAmount;
+        entry.profit = toFixed(profit);
+
+        return append(entry);
+    }
+
+    public Balances addCash(float amount) {
+        LedgerEntry entry = newEntry(LedgerEntryTypeEnum.CASH_ADJUSTMENT, null);
+        entry.cash = toFixed(amount);
+
+        return append(entry);
+    }
+
+    public Balances addMargin(float amount) {
+        LedgerEntry entry = newEntry(LedgerEntryTypeEnum.MARGIN_ADJUSTMENT, null);
+        entry.margin = toFixed(amount);
+
+        return append(entry);
+    }
+
+    public Balances addProfit(float amount) {
+        LedgerEntry entry = newEntry(LedgerEntryTypeEnum.PROFIT_ADJUSTMENT, null);
+        entry.profit = toFixed(amount);
+
+        return append(entry);
+    }
+
+    /**
+     * Sets the margin to a multiple of the cash, the journal records the difference
+     */
+    public Balances resetMargin(float marginPercentage) {
+        Balances current;
+        Balances updated;
+        LedgerEntry entry;
+
+        do {
+            current = balances.get();
+            entry = newEntry(LedgerEntryTypeEnum.MARGIN_ADJUSTMENT, null);
+            entry.margin = (long) (current.cash * (double) marginPercentage) - current.margin;
+            updated = current.apply(entry);
+        } while (!balances.compareAndSet(current, updated));
+
+        journal.add(entry);
+
+        return updated;
+    }
+
+    public ArrayList<LedgerEntry> getJournal() {
+        return new ArrayList<>(journal);
+    }
+
+    private Balances append(LedgerEntry entry) {
+        Balances current;
+        Balances updated;
+
+        do {
+            current = balances.get();
+            updated = current.apply(entry);
+        } while (!balances.compareAndSet(current, updated));
+
+        journal.add(entry);
+
+        return updated;
+    }
+
+    private LedgerEntry reservationEntry(String referenceId, float cash, float margin) {
+        LedgerEntry entry = newEntry(LedgerEntryTypeEnum.ORDER_RESERVED, referenceId);
+        long cashAmount = toFixed(Math.abs(cash));
+        long marginAmount = toFixed(Math.abs(margin));
+
+        entry.cash = -cashAmount;
+        entry.margin = -marginAmount;
+        entry.outstandingMargin = marginAmount;
+        entry.committedCash = cashAmount;
+
+        return entry;
+    }
+
+    private LedgerEntry newEntry(LedgerEntryTypeEnum type, String referenceId) {
+        LedgerEntry entry = new LedgerEntry();
+        entry.type = type;
+        entry.accountId = accountId;
+        entry.referenceId = referenceId;
+        entry.createdAt = System.currentTimeMillis();
+
+        return entry;
+    }
+
+    static long toFixed(Float amount) {
+        return amount == null ? 0 : Math.round(amount * (double) SCALE);
+    }
+
+    static float toFloat(long amount) {
+        return (float) ((double) amount / SCALE);
+    }
+}
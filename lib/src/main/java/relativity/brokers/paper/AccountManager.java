@@ -39,9 +39,9 @@ public class AccountManager {
     }};
 
     public ConcurrentHashMap<String, Account> accounts = new ConcurrentHashMap<>();
-    public ConcurrentHashMap<String, Float> dailyProfits = new ConcurrentHashMap<>();
-    public float biggestLoss = 0.0f;
-    public float biggestGain = 0.0f;
+    // Balances are only changed through the ledger, the account's fields are copied
+    // from it after each change for anything that reads the account directly
+    public ConcurrentHashMap<String, AccountLedger> ledgers = new ConcurrentHashMap<>();
 
     public OrderManager orderManager;
     public PositionManager positionManager;
@@ -50,33 +50,43 @@ public class AccountManager {
         this.orderManager = orderManager;
         this.positionManager = positionManager;
 
-        accounts.put(defaultAccount.accountId, defaultAccount);
-        dailyProfits.put(defaultAccount.accountId, 0.0f);
+        addAccount(defaultAccount);
     }
 
     public void addAccount(Account account) {
+        ledgers.put(account.id, new AccountLedger(account));
         accounts.put(account.id, account);
     }
 
     public void removeAccount(Account account) {
-        accounts.remove(account);
+        accounts.remove(account.id);
+        ledgers.remove(account.id);
     }
 
     public Account getAccount(@NotNull String accountId) {
         // TODO: returning a default account is a bug
-        return accounts.containsKey(accountId) && accountId != null
+        return accountId != null && accounts.containsKey(accountId)
             ? accounts.get(accountId)
             : defaultAccount;
     }
 
-    public void updateDailyProfits(String accountId, Float profit) {
-        Float currentProfit = dailyProfits.get(accountId);
+    public AccountLedger getLedger(String accountId) {
+        AccountLedger ledger = accountId != null
+            ? ledgers.get(accountId)
+            : null;
 
-        if (currentProfit == null) {
-            currentProfit = 0.0f;
-        }
+        return ledger != null
+            ? ledger
+            : ledgers.get(defaultAccount.id);
+    }
 
-        dailyProfits.put(accountId, currentProfit + profit);
+    public AccountLedger.Balances getBalances(String accountId) {
+        return getLedger(accountId).getBalances();
+    }
+
+    public void updateDailyProfits(String accountId, Float profit) {
+        getLedger(accountId).addProfit(profit);
+        syncAccount(accountId);
     }
 
     public Float getAllBalance(String accountId) {
@@ -84,27 +94,21 @@ public class AccountManager {
 
         // TODO: should add cash balance to position values + enter position order values
 
-        return account.balance + account.cashBalance;
+        return account.balance + getBalances(accountId).getCash();
     }
 
     public Float getTotalCash(String accountId) {
-        Account account = getAccount(accountId);
-
-        return account.cashBalance + getCashBalanceFromPositionsAndOrders(accountId);
+        return getBalances(accountId).getTotalCash();
     }
 
     public Float getTotalMargin(String accountId) {
-        Account account = getAccount(accountId);
+        AccountLedger.Balances balances = getBalances(accountId);
 
-        return account.marginBalance + account.outstandingMarginBalance;
+        return balances.getMargin() + balances.getOutstandingMargin();
     }
 
-
     public Float getCashBalanceFromPositionsAndOrders(@NotNull String accountId) {
-        float orderCash = orderManager.getCashBalanceFromOrders(accountId);
-        float positionCash = positionManager.getPositionsCashBalance(accountId);
-
-        return orderCash + positionCash;
+        return getBalances(accountId).getCommittedCash();
     }
 
     public Float getStartingBalance(String accountId) {
@@ -112,13 +116,19 @@ public class AccountManager {
     }
 
     public Float getAllProfits(String accountId) {
-        return this.dailyProfits.get(accountId);
+        return getBalances(accountId).getRealizedProfit();
     }
 
-    public Float getBalanceMinusMargin(String accountId) {
-        Account account = getAccount(accountId);
+    public Float getBiggestGain(String accountId) {
+        return getBalances(accountId).getBiggestGain();
+    }
 
-        return getAllBalance(accountId) - account.outstandingMarginBalance;
+    public Float getBiggestLoss(String accountId) {
+        return getBalances(accountId).getBiggestLoss();
+    }
+
+    public Float getBalanceMinusMargin(String accountId) {
+        return getAllBalance(accountId) - getBalances(accountId).getOutstandingMargin();
     }
 
     public Float getBuyingPower(String accountId) {
@@ -126,49 +136,36 @@ public class AccountManager {
     }
 
     public Float calculateBuyingPower(String accountId) {
-        Account account = getAccount(accountId);
-
-        return account.marginBalance + account.cashBalance;
+        return getBalances(accountId).getBuyingPower();
     }
 
     public Float calculateMarginBuyingPower(String accountId) {
         Account account = getAccount(accountId);
+        AccountLedger.Balances balances = getLedger(accountId).resetMargin(account.marginPercentage);
 
-        account.marginBalance = account.cashBalance * account.marginPercentage;
+        syncAccount(accountId);
 
-        return account.marginBalance;
+        return balances.getMargin();
     }
 
     public void addMargin(String accountId, Float amount) {
-        Account account = getAccount(accountId);
-
-        account.marginBalance += amount;
+        getLedger(accountId).addMargin(amount);
+        syncAccount(accountId);
     }
 
     public void addCash(String accountId, Float amount) {
-        Account account = getAccount(accountId);
-
-        account.cashBalance += amount;
+        getLedger(accountId).addCash(amount);
+        syncAccount(accountId);
     }
 
     public void updateCashAndMarginBalance(String accountId, Float cash, Float margin) {
-        Account account = getAccount(accountId);
-
-        if (margin > account.marginBalance) {
-            throw new Error("Margin requested can not be greater than the account's margin balance");
-        }
-
-        synchronized (account.balancesLock) {
-            account.cashBalance -= Math.abs(cash);
-            account.marginBalance -= Math.abs(margin);
-            account.outstandingMarginBalance += Math.abs(margin);
-        }
+        AccountLedger.Balances balances = getLedger(accountId).debit(null, cash, margin);
 
-        Float totalCash = account.cashBalance + getCashBalanceFromPositionsAndOrders(accountId);
+        syncAccount(accountId);
 
-        Logger.info("Total cash: " + totalCash + " cash removed " + cash + " margin removed " + margin);
+        Logger.info("Total cash: " + balances.getTotalCash() + " cash removed " + cash + " margin removed " + margin);
 
-        if (account.cashBalance < 0) {
+        if (balances.cash < 0) {
 //            throw new Error("Cash somehow went negative");
             Logger.warn("Cash somehow went negative");
         }
@@ -176,22 +173,32 @@ public class AccountManager {
         // TODO: fire event here
     }
 
-    public void updateBalancesFromOpenOrder(Order order) {
+    /**
+     * Moves an open order's cash and margin out of the buying power. The check and
+     * the debit are one update so concurrent orders can't both spend the same cash.
+     *
+     * @return false when the account no longer has the cash or margin
+     */
+    public boolean reserveOrderBalances(Order order) {
         if (order.intent == OrderIntentEnum.CLOSE) {
-            return;
+            return true;
         }
 
-        updateCashAndMarginBalance(
-            order.accountId,
-            order.cashBalance,
-            order.marginBalance
-        );
+        AccountLedger ledger = getLedger(order.accountId);
+
+        if (!ledger.reserve(order.id, order.cashBalance, order.marginBalance)) {
+            return false;
+        }
+
+        syncAccount(order.accountId);
+
+        return true;
     }
 
     public void settleOrderFill(Order order) {
         // Re-think when an order fill affects the account balance
         // If the order is a close order, there is a position closed event
-        // If the order is an enter order, the cash and margin balance are updated in the updateBalancesFromOpenOrder method
+        // If the order is an enter order, the cash and margin balance are reserved when the order is created
 //        if (order.intent == OrderIntentEnum.CLOSE) {
 //            Account account = getAccount(order.accountId);
 //
@@ -204,26 +211,16 @@ public class AccountManager {
     }
 
     public void settlePosition(Position position) {
-        Account account = getAccount(position.accountId);
-
-        synchronized (account.balancesLock) {
-            account.cashBalance += Math.abs(position.cashBalance) + position.realizedProfit;
-            account.marginBalance += position.marginBalance;
-            account.outstandingMarginBalance -= position.marginBalance;
-        }
-
-        float dailyProfit = dailyProfits.get(position.accountId) + position.realizedProfit;
-        dailyProfits.put(position.accountId, dailyProfit);
+        AccountLedger.Balances balances = getLedger(position.accountId).settle(
+            position.id,
+            position.cashBalance,
+            position.marginBalance,
+            position.realizedProfit
+        );
 
-        if (position.realizedProfit > biggestGain) {
-            biggestGain = position.realizedProfit;
-        }
+        syncAccount(position.accountId);
 
-        if (position.realizedProfit < biggestLoss) {
-            biggestLoss = position.realizedProfit;
-        }
-
-        Logger.info("Daily profit: $" + String.format("%.2f", dailyProfit) + " account cash balance: " + getTotalCash(account.id) + " margin balance: " + getTotalMargin(account.id));
+        Logger.info("Daily profit: $" + String.format("%.2f", balances.getRealizedProfit()) + " account cash balance: " + balances.getTotalCash() + " margin balance: " + (balances.getMargin() + balances.getOutstandingMargin()));
 
         // TODO: find average profit
 //        Float averageProfit =
@@ -240,4 +237,16 @@ public class AccountManager {
 
         return cash;
     }
+
+    // Copies the latest totals rather than a caller's so a slower writer can't
+    // leave older balances on the account
+    private void syncAccount(String accountId) {
+        Account account = getAccount(accountId);
+        AccountLedger.Balances balances = getBalances(accountId);
+
+        account.cashBalance = balances.getCash();
+        account.marginBalance = balances.getMargin();
+        account.outstandingMarginBalance = balances.getOutstandingMargin();
+        account.buyingPower = balances.getBuyingPower();
+    }
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.brokers.paper;
+
+import relativity.brokers.types.Order;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Orders grouped by one key, maintained by OrderManager next to the orders
+ * they index so a lookup touches only the matching orders. Orders without
+ * a key are not indexed. Reads are lock free, writes are serialized by the
+ * owner so an emptied set is never dropped while an order is being added.
+ */
+public class OrderIndex<K> {
+    private final ConcurrentHashMap<K, Set<Order>> orders = new ConcurrentHashMap<>();
+
+    public void add(K key, Order order) {
+        if (key == null) {
+            return;
+        }
+
+        orders.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(order);
+    }
+
+    public void remove(K key, Order order) {
+        if (key == null) {
+            return;
+        }
+
+        // Drop the set once empty so keys for finished strategies do not pile up
+        orders.computeIfPresent(key, (k, keyOrders) -> {
+            keyOrders.remove(order);
+
+            return keyOrders.isEmpty() ? null : keyOrders;
+        });
+    }
+
+    /**
+     * Live view of the orders for the key, empty when there are none
+     */
+    public Set<Order> get(K key) {
+        if (key == null) {
+            return Collections.emptySet();
+        }
+
+        Set<Order> keyOrders = orders.get(key);
+
+        return keyOrders != null ? keyOrders : Collections.emptySet();
+    }
+
+    public boolean contains(K key) {
+        return !get(key).isEmpty();
+    }
+
+    public void clear() {
+        orders.clear();
+    }
+}
@@ -28,6 +28,8 @@ import relativity.brokers.types.*;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -37,6 +39,16 @@ public class OrderManager {
     public ConcurrentHashMap<String, String> orderStrategies = new ConcurrentHashMap<>();
     public ConcurrentHashMap<String, String> ordersInFulfillment = new ConcurrentHashMap<>();
 
+    // Open orders by key, changed only together with orders under indexLock
+    private final OrderIndex<String> ordersBySymbol = new OrderIndex<>();
+    private final OrderIndex<UUID> ordersByStrategy = new OrderIndex<>();
+    private final OrderIndex<String> ordersByAccount = new OrderIndex<>();
+    private final OrderIndex<String> ordersByPosition = new OrderIndex<>();
+    private final OrderIndex<UUID> pastOrdersByStrategy = new OrderIndex<>();
+    // Resting orders by symbol and trigger price, matched by TradeManager
+    private final ConcurrentHashMap<String, PaperOrderBook> orderBooks = new ConcurrentHashMap<>();
+    private final Object indexLock = new Object();
+
     public InstrumentManager instrumentManager;
 
     public AccountManager accountManager;
@@ -52,11 +64,10 @@ public class OrderManager {
     public ArrayList<Order> getBuyOrdersForSymbol(String symbol, String accountId) {
         ArrayList<Order> buyOrders = new ArrayList<>();
 
-        for (Order order : orders.values()) {
+        for (Order order : ordersBySymbol.get(symbol)) {
             if (
-                order.symbol == symbol &&
                 order.side == OrderSideEnum.BUY &&
-                order.accountId== accountId
+                accountId.equals(order.accountId)
             ) {
                 buyOrders.add(order);
             }
@@ -68,11 +79,8 @@ public class OrderManager {
     public ArrayList<Order> getBuyOrdersForSymbol(String symbol) {
         ArrayList<Order> buyOrders = new ArrayList<>();
 
-        for (Order order : orders.values()) {
-            if (
-                order.symbol == symbol &&
-                order.side == OrderSideEnum.BUY
-            ) {
+        for (Order order : ordersBySymbol.get(symbol)) {
+            if (order.side == OrderSideEnum.BUY) {
                 buyOrders.add(order);
             }
         }
@@ -81,11 +89,8 @@ public class OrderManager {
     }
 
     public boolean hasBuyOrdersForSymbol(String symbol) {
-        for (Order order : orders.values()) {
-            if (
-                order.symbol == symbol &&
-                order.side == OrderSideEnum.BUY
-            ) {
+        for (Order order : ordersBySymbol.get(symbol)) {
+            if (order.side == OrderSideEnum.BUY) {
                 return true;
             }
         }
@@ -94,11 +99,10 @@ public class OrderManager {
     }
 
     public boolean hasBuyOrdersForSymbol(String symbol, String accountId) {
-        for (Order order : orders.values()) {
+        for (Order order : ordersBySymbol.get(symbol)) {
             if (
-                order.symbol == symbol &&
                 order.side == OrderSideEnum.BUY &&
-                order.accountId== accountId
+                accountId.equals(order.accountId)
             ) {
                 return true;
             }
@@ -110,11 +114,10 @@ public class OrderManager {
     public ArrayList<Order> getSellOrdersForSymbol(String symbol, String accountId) {
         ArrayList<Order> buyOrders = new ArrayList<>();
 
-        for (Order order : orders.values()) {
+        for (Order order : ordersBySymbol.get(symbol)) {
             if (
-                order.symbol == symbol &&
                 order.side == OrderSideEnum.SELL &&
-                order.accountId== accountId
+                accountId.equals(order.accountId)
             ) {
                 buyOrders.add(order);
             }
@@ -126,11 +129,8 @@ public class OrderManager {
     public ArrayList<Order> getSellOrdersForSymbol(String symbol) {
         ArrayList<Order> buyOrders = new ArrayList<>();
 
-        for (Order order : orders.values()) {
-            if (
-                order.symbol == symbol &&
-                order.side == OrderSideEnum.SELL
-            ) {
+        for (Order order : ordersBySymbol.get(symbol)) {
+            if (order.side == OrderSideEnum.SELL) {
                 buyOrders.add(order);
             }
         }
@@ -139,11 +139,8 @@ public class OrderManager {
     }
 
     public boolean hasSellOrdersForSymbol(String symbol) {
-        for (Order order : orders.values()) {
-            if (
-                order.symbol == symbol &&
-                order.side == OrderSideEnum.SELL
-            ) {
+        for (Order order : ordersBySymbol.get(symbol)) {
+            if (order.side == OrderSideEnum.SELL) {
                 return true;
             }
         }
@@ -152,11 +149,10 @@ public class OrderManager {
     }
 
     public boolean hasSellOrdersForSymbol(String symbol, String accountId) {
-        for (Order order : orders.values()) {
+        for (Order order : ordersBySymbol.get(symbol)) {
             if (
-                order.symbol == symbol &&
                 order.side == OrderSideEnum.SELL &&
-                order.accountId== accountId
+                accountId.equals(order.accountId)
             ) {
                 return true;
             }
@@ -165,11 +161,43 @@ public class OrderManager {
         return false;
     }
 
+    /**
+     * Live view of the open orders for the symbol, iterating it does not copy
+     */
+    public Set<Order> getOrdersForSymbol(String symbol) {
+        return ordersBySymbol.get(symbol);
+    }
+
+    /**
+     * The symbol's resting orders by trigger price, null until it has had an order
+     */
+    public PaperOrderBook getOrderBook(String symbol) {
+        return orderBooks.get(symbol);
+    }
+
+    /**
+     * Triggers the symbol's stops reached by the price range. Under the index lock
+     * so a stop canceled on another thread is not put back into the book.
+     */
+    public void triggerStops(String symbol, float low, float high) {
+        PaperOrderBook orderBook = orderBooks.get(symbol);
+
+        if (orderBook == null || !orderBook.hasStops()) {
+            return;
+        }
+
+        synchronized (indexLock) {
+            orderBook.triggerStops(low, high);
+        }
+    }
+
     public ArrayList<Order> getOpenOrdersForSymbol(String symbol) {
         ArrayList<Order> openOrders = new ArrayList<>();
 
-        for (Order order : orders.values()) {
-            // TODO: check if unfulfilled order
+        for (Order order : ordersBySymbol.get(symbol)) {
+            if (isUnfulfilledOrder(order)) {
+                openOrders.add(order);
+            }
         }
 
         return openOrders;
@@ -214,11 +242,8 @@ public class OrderManager {
     }
 
     public boolean hasOrderForSymbol(String symbol, String accountId) {
-        for (Order order : orders.values()) {
-            if (
-                order.symbol == symbol &&
-                order.accountId== accountId
-            ) {
+        for (Order order : ordersBySymbol.get(symbol)) {
+            if (accountId.equals(order.accountId)) {
                 return true;
             }
         }
@@ -227,18 +252,12 @@ public class OrderManager {
     }
 
     public boolean hasOrderForSymbol(String symbol) {
-        for (Order order : orders.values()) {
-            if (order.symbol == symbol) {
-                return true;
-            }
-        }
-
-        return false;
+        return ordersBySymbol.contains(symbol);
     }
 
     public boolean hasOrderForSymbols(ArrayList<String> symbols) {
-        for (Order order : orders.values()) {
-            if (symbols.contains(order.symbol)) {
+        for (String symbol : symbols) {
+            if (ordersBySymbol.contains(symbol)) {
                 return true;
             }
         }
@@ -249,11 +268,10 @@ public class OrderManager {
     public ArrayList<Order> cancelEnterPositionOrders(String symbol, String accountId) {
         ArrayList<Order> enterPositionOrders = new ArrayList<>();
 
-        for (Order order : orders.values()) {
+        for (Order order : ordersBySymbol.get(symbol)) {
             if (
-                order.symbol == symbol &&
                 order.intent == OrderIntentEnum.OPEN &&
-                order.accountId== accountId
+                accountId.equals(order.accountId)
             ) {
                 enterPositionOrders.add(order);
             }
@@ -269,7 +287,7 @@ public class OrderManager {
             // TODO: orphan order
         }
 
-        orders.put(order.id, order);
+        addOpenOrder(order);
 
         // TODO: find position for order and add order to position
     }
@@ -283,8 +301,7 @@ public class OrderManager {
             return;
         }
 
-        pastOrders.put(orderId, order);
-        orders.remove(orderId);
+        archiveOrder(order);
         orderStrategies.remove(orderId);
 
         // TODO: find position for order and if position, add order to position
@@ -295,16 +312,80 @@ public class OrderManager {
     }
 
     public void addToOpenOrders(Order order) {
-        orders.put(order.id, order);
+        addOpenOrder(order);
+    }
 
+    /**
+     * Links the order to a position it opens or closes, indexing it for the position queries
+     */
+    public void addPositionToOrder(Order order, Position position) {
+        synchronized (indexLock) {
+            order.positions.add(position);
 
+            if (orders.get(order.id) == order) {
+                ordersByPosition.add(position.id, order);
+            }
+        }
+    }
+
+    private void addOpenOrder(Order order) {
+        synchronized (indexLock) {
+            Order previous = orders.put(order.id, order);
+
+            if (previous == order) {
+                return;
+            }
+
+            if (previous != null) {
+                unindexOpenOrder(previous);
+            }
+
+            ordersBySymbol.add(order.symbol, order);
+            ordersByStrategy.add(order.strategyId, order);
+            ordersByAccount.add(order.accountId, order);
+            orderBooks.computeIfAbsent(order.symbol, symbol -> new PaperOrderBook()).add(order);
+
+            for (Position position : order.positions) {
+                ordersByPosition.add(position.id, order);
+            }
+        }
+    }
+
+    /**
+     * Moves the order from the open orders to the past orders along with its index entries
+     */
+    private void archiveOrder(Order order) {
+        synchronized (indexLock) {
+            if (orders.remove(order.id, order)) {
+                unindexOpenOrder(order);
+            }
+
+            if (pastOrders.put(order.id, order) == null) {
+                pastOrdersByStrategy.add(order.strategyId, order);
+            }
+        }
+    }
+
+    private void unindexOpenOrder(Order order) {
+        ordersBySymbol.remove(order.symbol, order);
+        ordersByStrategy.remove(order.strategyId, order);
+        ordersByAccount.remove(order.accountId, order);
+
+        PaperOrderBook orderBook = orderBooks.get(order.symbol);
+
+        if (orderBook != null) {
+            orderBook.remove(order);
+        }
+
+        for (Position position : order.positions) {
+            ordersByPosition.remove(position.id, order);
+        }
     }
 
     public Order findBuyOrderForSymbol(String symbol, String accountId) {
-        for (Order order : orders.values()) {
+        for (Order order : ordersBySymbol.get(symbol)) {
             if (
-                order.symbol == symbol &&
-                order.accountId== accountId &&
+                accountId.equals(order.accountId) &&
                 order.side == OrderSideEnum.BUY
             ) {
                 return order;
@@ -317,11 +398,8 @@ public class OrderManager {
     public ArrayList<Order> findEnterPositionOrders(String accountId) {
         ArrayList<Order> enterPositionOrders = new ArrayList<>();
 
-        for (Order order : orders.values()) {
-            if (
-                order.intent == OrderIntentEnum.OPEN &&
-                order.accountId== accountId
-            ) {
+        for (Order order : ordersByAccount.get(accountId)) {
+            if (order.intent == OrderIntentEnum.OPEN) {
                 enterPositionOrders.add(order);
             }
         }
@@ -332,11 +410,10 @@ public class OrderManager {
     public ArrayList<Order> findEnterPositionOrders(UUID strategyId, String accountId) {
         ArrayList<Order> enterPositionOrders = new ArrayList<>();
 
-        for (Order order : orders.values()) {
+        for (Order order : ordersByStrategy.get(strategyId)) {
             if (
-            order.intent == OrderIntentEnum.OPEN &&
-            order.accountId== accountId &&
-            order.strategyId == strategyId
+                order.intent == OrderIntentEnum.OPEN &&
+                accountId.equals(order.accountId)
             ) {
                 enterPositionOrders.add(order);
             }
@@ -346,11 +423,10 @@ public class OrderManager {
     }
 
     public Order findClosePositionOrder(Position position) {
-        for (Order order : orders.values()) {
+        for (Order order : ordersByStrategy.get(position.strategyId)) {
             if (
                 order.intent == OrderIntentEnum.OPEN &&
-                order.accountId == position.accountId &&
-                order.strategyId == position.strategyId
+                Objects.equals(order.accountId, position.accountId)
             ) {
                 return order;
             }
@@ -362,11 +438,8 @@ public class OrderManager {
     public Float getEnterPositionOrdersValues(String accountId) {
         Float value = 0.0f;
 
-        for (Order order : orders.values()) {
-            if (
-                order.intent == OrderIntentEnum.OPEN &&
-                order.accountId== accountId
-            ) {
+        for (Order order : ordersByAccount.get(accountId)) {
+            if (order.intent == OrderIntentEnum.OPEN) {
                 value += Math.abs(order.marketValue);
             }
         }
@@ -377,10 +450,8 @@ public class OrderManager {
     public Float getOrdersValue(String accountId) {
         Float value = 0.0f;
 
-        for (Order order : orders.values()) {
-            if (order.accountId== accountId) {
-                value += Math.abs(order.marketValue);
-            }
+        for (Order order : ordersByAccount.get(accountId)) {
+            value += Math.abs(order.marketValue);
         }
 
         return value;
@@ -433,16 +504,15 @@ public class OrderManager {
     }
 
     public ArrayList<Order> getOpenOrders() {
-        return (ArrayList<Order>) orders.values();
+        return new ArrayList<>(orders.values());
     }
 
     public Order createOrderIfNotExists(OrderOptions options) {
-        for (Order order : orders.values()) {
+        for (Order order : ordersBySymbol.get(options.symbol)) {
             if (
-                order.symbol == options.symbol &&
                 order.side == options.side &&
                 order.intent == options.intent &&
-                order.accountId== options.accountId
+                Objects.equals(order.accountId, options.accountId)
             ) {
                 return order;
             }
@@ -450,7 +520,7 @@ public class OrderManager {
 
 //        for (Order order : pastOrders.values()) {
 //            if (
-//                order.symbol == options.symbol &&
+//                options.symbol.equals(order.symbol) &&
 //                order.side == options.side &&
 //                order.intent == options.intent &&
 //                order.accountId== options.accountId &&
@@ -471,7 +541,8 @@ public class OrderManager {
             throw new Error("Security not found: " + options.symbol);
         }
 
-        Float marketValue = options.limitPrice * options.quantity;
+        // A stop without a limit is valued at its stop
+        Float marketValue = (options.limitPrice != null ? options.limitPrice : options.stopPrice) * options.quantity;
 
         if(
             options.intent == OrderIntentEnum.OPEN &&
@@ -488,19 +559,19 @@ public class OrderManager {
 //                ? 1
 //                : -1;
 
-            Account account = accountManager.getAccount(options.accountId);
+            AccountLedger.Balances balances = accountManager.getBalances(options.accountId);
 
-            if (account.cashBalance < marketValue) {
-               cashBalance = account.cashBalance;
-               marginBalance = marketValue - account.cashBalance;
+            if (balances.getCash() < marketValue) {
+               cashBalance = balances.getCash();
+               marginBalance = marketValue - balances.getCash();
             }
 
-            if (account.cashBalance >= marketValue) {
+            if (balances.getCash() >= marketValue) {
                 cashBalance = marketValue;
             }
 
-            if (marginBalance > account.marginBalance) {
-                marginBalance = account.marginBalance - 30;
+            if (marginBalance > balances.getMargin()) {
+                marginBalance = balances.getMargin() - 30;
             }
 
             // TODO: Should error if not enough cash or margin
@@ -526,6 +597,7 @@ public class OrderManager {
             ? OrderStatusEnum.PENDING
             : OrderStatusEnum.PENDING_ACTIVATION;
         order.limitPrice = options.limitPrice;
+        order.stopPrice = options.stopPrice;
 
         order.cashBalance = cashBalance;
         order.marginBalance = marginBalance;
@@ -567,7 +639,12 @@ public class OrderManager {
             return order;
         }
 
-        orders.put(order.id, order);
+        // Another order may have spent the balances since they were read above
+        if (!accountManager.reserveOrderBalances(order)) {
+            throw new Error("Insufficient buying power for " + options.symbol + " " + options.accountId + " " + marketValue);
+        }
+
+        addOpenOrder(order);
         eventService.processEvent(new OrderCreatedEvent(order));
 
         return order;
@@ -631,7 +708,8 @@ public class OrderManager {
         }
 
         removeOpenOrder(order.id);
-        pastOrders.put(order.id, order);
+        // Child orders are never open until activated, they still go to the past orders
+        archiveOrder(order);
 
         // TODO: Handle position and order
         // TODO: account manager settle order
@@ -648,11 +726,8 @@ public class OrderManager {
     }
 
     public Order findOrderForSymbol(String symbol, String accountId) {
-        for (Order order : orders.values()) {
-            if (
-                order.symbol == symbol &&
-                order.accountId== accountId
-            ) {
+        for (Order order : ordersBySymbol.get(symbol)) {
+            if (accountId.equals(order.accountId)) {
                 return order;
             }
         }
@@ -661,10 +736,8 @@ public class OrderManager {
     }
 
     public Order findOrderForSymbol(String symbol) {
-        for (Order order : orders.values()) {
-            if (order.symbol == symbol) {
-                return order;
-            }
+        for (Order order : ordersBySymbol.get(symbol)) {
+            return order;
         }
 
         return null;
@@ -673,11 +746,7 @@ public class OrderManager {
     public ArrayList<Order> findOrdersForStrategy(UUID strategyId) {
         ArrayList<Order> strategyOrders = new ArrayList<>();
 
-        for (Order order : orders.values()) {
-            if (order.strategyId == strategyId) {
-                strategyOrders.add(order);
-            }
-        }
+        strategyOrders.addAll(ordersByStrategy.get(strategyId));
 
         return strategyOrders;
     }
@@ -685,11 +754,8 @@ public class OrderManager {
     public ArrayList<Order> findOrderForStrategy(UUID strategyId, String accountId) {
         ArrayList<Order> strategyOrders = new ArrayList<>();
 
-        for (Order order : orders.values()) {
-            if (
-                order.strategyId == strategyId &&
-                order.accountId== accountId
-            ) {
+        for (Order order : ordersByStrategy.get(strategyId)) {
+            if (accountId.equals(order.accountId)) {
                 strategyOrders.add(order);
             }
         }
@@ -700,11 +766,10 @@ public class OrderManager {
     public ArrayList<Order> findOrdersForStrategy(UUID strategyId, String symbol, String accountId) {
         ArrayList<Order> strategyOrders = new ArrayList<>();
 
-        for (Order order : orders.values()) {
+        for (Order order : ordersByStrategy.get(strategyId)) {
             if (
-                order.strategyId == strategyId &&
-                order.symbol == symbol &&
-                order.accountId== accountId &&
+                symbol.equals(order.symbol) &&
+                accountId.equals(order.accountId) &&
                 isUnfulfilledOrder(order)
             ) {
                 strategyOrders.add(order);
@@ -717,10 +782,9 @@ public class OrderManager {
     public ArrayList<Order> findOrdersForStrategy(UUID strategyId, String symbol) {
         ArrayList<Order> strategyOrders = new ArrayList<>();
 
-        for (Order order : orders.values()) {
+        for (Order order : ordersByStrategy.get(strategyId)) {
             if (
-                order.strategyId == strategyId &&
-                order.symbol == symbol &&
+                symbol.equals(order.symbol) &&
                 isUnfulfilledOrder(order)
             ) {
                 strategyOrders.add(order);
@@ -733,10 +797,9 @@ public class OrderManager {
     public ArrayList<Order> findOrdersForStrategy(UUID strategyId, String symbol, OrderSideEnum side) {
         ArrayList<Order> strategyOrders = new ArrayList<>();
 
-        for (Order order : orders.values()) {
+        for (Order order : ordersByStrategy.get(strategyId)) {
             if (
-                order.strategyId == strategyId &&
-                order.symbol == symbol &&
+                symbol.equals(order.symbol) &&
                 order.side == side &&
                 isUnfulfilledOrder(order)
             ) {
@@ -750,12 +813,11 @@ public class OrderManager {
     public ArrayList<Order> findOrdersForStrategy(UUID strategyId, String symbol, OrderSideEnum side, String accountId) {
         ArrayList<Order> strategyOrders = new ArrayList<>();
 
-        for (Order order : orders.values()) {
+        for (Order order : ordersByStrategy.get(strategyId)) {
             if (
-                order.strategyId == strategyId &&
-                order.symbol == symbol &&
+                symbol.equals(order.symbol) &&
                 order.side == side &&
-                order.accountId== accountId &&
+                accountId.equals(order.accountId) &&
                 isUnfulfilledOrder(order)
             ) {
                 strategyOrders.add(order);
@@ -766,31 +828,16 @@ public class OrderManager {
     }
 
     public boolean hasOrdersForStrategy(UUID strategyId) {
-        for (Order order : orders.values()) {
-            if (order.strategyId == strategyId) {
-                return true;
-            }
-        }
-
-        return false;
+        return ordersByStrategy.contains(strategyId);
     }
 
     public boolean hasPastOrdersForStrategy(UUID strategyId) {
-        for (Order order : pastOrders.values()) {
-            if (order.strategyId == strategyId) {
-                return true;
-            }
-        }
-
-        return false;
+        return pastOrdersByStrategy.contains(strategyId);
     }
 
     public boolean hasPastOpenOrdersForStrategy(UUID strategyId) {
-        for (Order order : pastOrders.values()) {
-            if (
-            order.strategyId == strategyId &&
-            order.intent == OrderIntentEnum.OPEN
-            ) {
+        for (Order order : pastOrdersByStrategy.get(strategyId)) {
+            if (order.intent == OrderIntentEnum.OPEN) {
                 return true;
             }
         }
@@ -799,9 +846,8 @@ public class OrderManager {
     }
 
     public void updateOrders(String symbol, Float price) {
-        for (Order order : orders.values()) {
+        for (Order order : ordersBySymbol.get(symbol)) {
             if (
-                order.symbol == symbol &&
                 order.status != OrderStatusEnum.FILLED &&
                 order.status != OrderStatusEnum.CANCELED
             ) {
@@ -821,77 +867,33 @@ public class OrderManager {
     }
 
     public Order getOpenOrderForPosition(Position position) {
-        for (Order order : orders.values()) {
-            if (order.positions.contains(position)) {
-                return order;
-            }
-        }
-
-        return null;
+        return getOpenOrderForPosition(position.id);
     }
 
     public Order getOpenOrderForPosition(String positionId) {
-        for (Order order : orders.values()) {
-            for (Position position : order.positions) {
-                if (position.id == positionId) {
-                    return order;
-                }
-            }
+        for (Order order : ordersByPosition.get(positionId)) {
+            return order;
         }
 
         return null;
     }
 
     public boolean hasCloseOrderForPosition(Position position) {
-        for (Order order : orders.values()) {
-            if (
-                order.positions.contains(position) &&
-                order.intent == OrderIntentEnum.CLOSE
-            ) {
-                return true;
-            }
-        }
-
-        return false;
+        return hasCloseOrderForPosition(position.id);
     }
 
     public boolean hasCloseOrderForPosition(String positionId) {
-        for (Order order : orders.values()) {
-            for (Position position : order.positions) {
-                if (
-                    position.id == positionId &&
-                    order.intent == OrderIntentEnum.CLOSE
-                ) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
+        return getCloseOrderForPosition(positionId) != null;
     }
 
     public Order getCloseOrderForPosition(Position position) {
-        for (Order order : orders.values()) {
-            if (
-                order.positions.contains(position) &&
-                order.intent == OrderIntentEnum.CLOSE
-            ) {
-                return order;
-            }
-        }
-
-        return null;
+        return getCloseOrderForPosition(position.id);
     }
 
     public Order getCloseOrderForPosition(String positionId) {
-        for (Order order : orders.values()) {
-            for (Position position : order.positions) {
-                if (
-                    position.id == positionId &&
-                    order.intent == OrderIntentEnum.CLOSE
-                ) {
-                    return order;
-                }
+        for (Order order : ordersByPosition.get(positionId)) {
+            if (order.intent == OrderIntentEnum.CLOSE) {
+                return order;
             }
         }
 
@@ -899,27 +901,14 @@ public class OrderManager {
     }
 
     public ArrayList<Order> getClosingOrdersForPosition(Position position) {
-        ArrayList<Order> closingOrders = new ArrayList<>();
-
-        for (Order order : orders.values()) {
-            if (
-                order.positions.contains(position) &&
-                order.intent == OrderIntentEnum.CLOSE &&
-                isUnfulfilledOrder(order)
-            ) {
-                closingOrders.add(order);
-            }
-        }
-
-        return closingOrders;
+        return getClosingOrdersForPosition(position.id);
     }
 
     public ArrayList<Order> getFulfilledClosingOrdersForPosition(Position position) {
         ArrayList<Order> closingOrders = new ArrayList<>();
 
-        for (Order order : orders.values()) {
+        for (Order order : ordersByPosition.get(position.id)) {
             if (
-                order.positions.contains(position) &&
                 order.intent == OrderIntentEnum.CLOSE &&
                 order.status == OrderStatusEnum.FILLED
             ) {
@@ -933,15 +922,12 @@ public class OrderManager {
     public ArrayList<Order> getClosingOrdersForPosition(String positionId) {
         ArrayList<Order> closingOrders = new ArrayList<>();
 
-        for (Order order : orders.values()) {
-            for (Position position : order.positions) {
-                if (
-                    position.id == positionId &&
-                    order.intent == OrderIntentEnum.CLOSE &&
-                    isUnfulfilledOrder(order)
-                ) {
-                    closingOrders.add(order);
-                }
+        for (Order order : ordersByPosition.get(positionId)) {
+            if (
+                order.intent == OrderIntentEnum.CLOSE &&
+                isUnfulfilledOrder(order)
+            ) {
+                closingOrders.add(order);
             }
         }
 
@@ -949,9 +935,8 @@ public class OrderManager {
     }
 
     public boolean hasActiveClosingOrdersForPosition(Position position) {
-        for (Order order : orders.values()) {
+        for (Order order : ordersByPosition.get(position.id)) {
             if (
-                order.positions.contains(position) &&
                 order.intent == OrderIntentEnum.CLOSE &&
                 isUnfulfilledOrder(order)
             ) {
@@ -1005,16 +990,18 @@ public class OrderManager {
                 }
             }
 
-            ArrayList<Float> prices = new ArrayList<>();
+            // Weighted by quantity, partial fills can be any size
+            double filledValue = 0.0;
+            double filledQuantity = 0.0;
 
             for (OrderFill fill : order.orderFills) {
-                prices.add(fill.price);
+                filledValue += (double) fill.price * fill.quantity;
+                filledQuantity += fill.quantity;
             }
 
-            order.filledAveragePrice = prices.stream().reduce(0.0f, Float::sum) / prices.size();
+            order.filledAveragePrice = (float) (filledValue / filledQuantity);
 
-            pastOrders.put(order.id, order);
-            orders.remove(order.id);
+            archiveOrder(order);
         }
 
         ordersInFulfillment.remove(order.id);
@@ -1035,7 +1022,7 @@ public class OrderManager {
         // in strategies. This helps with canceling child orders too early
         order.createdAt = System.currentTimeMillis();
 
-        orders.put(order.id, order);
+        addOpenOrder(order);
 
         // TODO: fire event here
     }
@@ -1046,8 +1033,6 @@ public class OrderManager {
                 order.status = OrderStatusEnum.WORKING;
                 order.updatedAt = System.currentTimeMillis();
                 order.createdAt = System.currentTimeMillis();
-
-                orders.put(order.id, order);
             }
         }
     }
@@ -1057,11 +1042,8 @@ public class OrderManager {
     }
 
     public boolean hasEnterPositionOrders(UUID strategyId) {
-        for (Order order : orders.values()) {
-            if (
-                order.intent == OrderIntentEnum.OPEN &&
-                order.strategyId == strategyId
-            ) {
+        for (Order order : ordersByStrategy.get(strategyId)) {
+            if (order.intent == OrderIntentEnum.OPEN) {
                 return true;
             }
         }
@@ -1072,11 +1054,8 @@ public class OrderManager {
     public float getCashBalanceFromOrders(String accountId) {
         float cash = 0.0f;
 
-        for (Order order : orders.values()) {
-            if (
-                order.intent == OrderIntentEnum.OPEN &&
-                order.accountId == accountId
-            ) {
+        for (Order order : ordersByAccount.get(accountId)) {
+            if (order.intent == OrderIntentEnum.OPEN) {
                 cash += order.cashBalance;
             }
         }
@@ -1085,11 +1064,8 @@ public class OrderManager {
     }
 
     public void updateOrdersWithPrice(PriceMovement price) {
-        for (Order order : orders.values()) {
-            if (
-                order.symbol == price.symbol &&
-                !ordersInFulfillment.containsKey(order.id)
-            ) {
+        for (Order order : ordersBySymbol.get(price.symbol)) {
+            if (!ordersInFulfillment.containsKey(order.id)) {
                 order.marketValue = price.close * order.quantity;
             }
         }
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.brokers.paper;
+
+import relativity.brokers.types.Order;
+import relativity.brokers.types.OrderSideEnum;
+import relativity.brokers.types.OrderStatusEnum;
+import relativity.brokers.types.OrderTypeEnum;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * One symbol's resting paper orders, keyed by the price that triggers them.
+ * Buy limits are sorted from the highest price down and sell limits from the
+ * lowest up, so a bar only reaches the price levels it crossed. Stop and stop
+ * limit orders wait in their own books until the price reaches the stop: buy
+ * stops from the lowest up, sell stops from the highest down. Once triggered a
+ * stop rests with the market orders and a stop limit with the limits. Trailing
+ * stops move their stop with the price and are not supported. Maintained by
+ * OrderManager under its index lock, read by the symbol's shard.
+ */
+public class PaperOrderBook {
+    private final ConcurrentSkipListMap<Float, Set<Order>> buyOrders = new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+    private final ConcurrentSkipListMap<Float, Set<Order>> sellOrders = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Float, Set<Order>> buyStops = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Float, Set<Order>> sellStops = new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+    // Checked on every bar, they do not wait for a price
+    private final Set<Order> marketOrders = ConcurrentHashMap.newKeySet();
+    // Orders not yet promoted to working, each is visited once
+    private final Set<Order> pendingOrders = ConcurrentHashMap.newKeySet();
+
+    public void add(Order order) {
+        if (order.status == OrderStatusEnum.PENDING) {
+            pendingOrders.add(order);
+        }
+
+        if (isAwaitingTrigger(order)) {
+            addLevel(getStopSide(order.side), order.stopPrice, order);
+
+            return;
+        }
+
+        if (isMarketOrder(order)) {
+            marketOrders.add(order);
+
+            return;
+        }
+
+        // Without a limit the order can never be crossed
+        if (order.limitPrice == null) {
+            return;
+        }
+
+        addLevel(getSide(order.side), order.limitPrice, order);
+    }
+
+    public void remove(Order order) {
+        pendingOrders.remove(order);
+
+        if (isStopOrder(order) && order.stopPrice != null) {
+            removeLevel(getStopSide(order.side), order.stopPrice, order);
+        }
+
+        if (isMarketOrder(order)) {
+            marketOrders.remove(order);
+
+            return;
+        }
+
+        if (order.limitPrice == null) {
+            return;
+        }
+
+        removeLevel(getSide(order.side), order.limitPrice, order);
+    }
+
+    /**
+     * Moves working stops the bar reached into the market or limit orders,
+     * buy stops trigger at or above their stop and sell stops at or below
+     */
+    public void triggerStops(float low, float high) {
+        if (!buyStops.isEmpty()) {
+            triggerLevels(buyStops.headMap(high, true).values());
+        }
+
+        if (!sellStops.isEmpty()) {
+            triggerLevels(sellStops.headMap(low, true).values());
+        }
+    }
+
+    private void triggerLevels(Collection<Set<Order>> levels) {
+        for (Set<Order> level : levels) {
+            for (Order order : level) {
+                if (order.status != OrderStatusEnum.WORKING) {
+                    continue;
+                }
+
+                removeLevel(getStopSide(order.side), order.stopPrice, order);
+                order.triggeredAt = System.currentTimeMillis();
+                add(order);
+            }
+        }
+    }
+
+    /**
+     * Moves orders placed since the last bar from pending to working
+     */
+    public void promotePendingOrders() {
+        if (pendingOrders.isEmpty()) {
+            return;
+        }
+
+        for (Order order : pendingOrders) {
+            if (order.status == OrderStatusEnum.PENDING) {
+                order.status = OrderStatusEnum.WORKING;
+            }
+
+            pendingOrders.remove(order);
+        }
+    }
+
+    /**
+     * Buy price levels at or above the low, highest first
+     */
+    public Collection<Set<Order>> getCrossedBuyOrders(float low) {
+        return buyOrders.headMap(low, true).values();
+    }
+
+    /**
+     * Sell price levels at or below the high, lowest first
+     */
+    public Collection<Set<Order>> getCrossedSellOrders(float high) {
+        return sellOrders.headMap(high, true).values();
+    }
+
+    public Collection<Order> getMarketOrders() {
+        return marketOrders;
+    }
+
+    public Float getBestBuyPrice() {
+        Map.Entry<Float, Set<Order>> best = buyOrders.firstEntry();
+
+        return best != null ? best.getKey() : null;
+    }
+
+    public Float getBestSellPrice() {
+        Map.Entry<Float, Set<Order>> best = sellOrders.firstEntry();
+
+        return best != null ? best.getKey() : null;
+    }
+
+    public boolean hasStops() {
+        return !buyStops.isEmpty() || !sellStops.isEmpty();
+    }
+
+    public boolean isEmpty() {
+        return buyOrders.isEmpty() &&
+            sellOrders.isEmpty() &&
+            buyStops.isEmpty() &&
+            sellStops.isEmpty() &&
+            marketOrders.isEmpty() &&
+            pendingOrders.isEmpty();
+    }
+
+    public static boolean isStopOrder(Order order) {
+        return order.type == OrderTypeEnum.STOP || order.type == OrderTypeEnum.STOP_LIMIT;
+    }
+
+    /**
+     * A stop or stop limit the price has not reached yet, it can not fill
+     */
+    public static boolean isAwaitingTrigger(Order order) {
+        return isStopOrder(order) && order.stopPrice != null && order.triggeredAt == null;
+    }
+
+    /**
+     * Fills at the market, including stops once triggered
+     */
+    public static boolean isMarketOrder(Order order) {
+        return order.type == OrderTypeEnum.MARKET || (order.type == OrderTypeEnum.STOP && order.triggeredAt != null);
+    }
+
+    private static void addLevel(ConcurrentSkipListMap<Float, Set<Order>> side, Float price, Order order) {
+        side.computeIfAbsent(price, key -> ConcurrentHashMap.newKeySet()).add(order);
+    }
+
+    private static void removeLevel(ConcurrentSkipListMap<Float, Set<Order>> side, Float price, Order order) {
+        side.computeIfPresent(price, (key, levelOrders) -> {
+            levelOrders.remove(order);
+
+            return levelOrders.isEmpty() ? null : levelOrders;
+        });
+    }
+
+    private ConcurrentSkipListMap<Float, Set<Order>> getSide(OrderSideEnum side) {
+        return side == OrderSideEnum.BUY ? buyOrders : sellOrders;
+    }
+
+    private ConcurrentSkipListMap<Float, Set<Order>> getStopSide(OrderSideEnum side) {
+        return side == OrderSideEnum.BUY ? buyStops : sellStops;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.brokers.paper;
+
+import relativity.brokers.types.Position;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Positions grouped by one key, maintained by PositionManager next to the positions
+ * they index so a lookup touches only the matching positions. Positions without
+ * a key are not indexed. Reads are lock free, writes are serialized by the
+ * owner so an emptied set is never dropped while a position is being added.
+ */
+public class PositionIndex<K> {
+    private final ConcurrentHashMap<K, Set<Position>> positions = new ConcurrentHashMap<>();
+
+    public void add(K key, Position position) {
+        if (key == null) {
+            return;
+        }
+
+        positions.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(position);
+    }
+
+    public void remove(K key, Position position) {
+        if (key == null) {
+            return;
+        }
+
+        // Drop the set once empty so keys for finished strategies do not pile up
+        positions.computeIfPresent(key, (k, keyPositions) -> {
+            keyPositions.remove(position);
+
+            return keyPositions.isEmpty() ? null : keyPositions;
+        });
+    }
+
+    /**
+     * Live view of the positions for the key, empty when there are none
+     */
+    public Set<Position> get(K key) {
+        if (key == null) {
+            return Collections.emptySet();
+        }
+
+        Set<Position> keyPositions = positions.get(key);
+
+        return keyPositions != null ? keyPositions : Collections.emptySet();
+    }
+
+    public boolean contains(K key) {
+        return !get(key).isEmpty();
+    }
+
+    public void clear() {
+        positions.clear();
+    }
+}
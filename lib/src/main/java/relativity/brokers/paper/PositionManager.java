@@ -26,6 +26,7 @@ import org.tinylog.Logger;
 import relativity.brokers.types.*;
 
 import java.util.ArrayList;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -39,83 +40,153 @@ public class PositionManager {
     public OrderManager orderManager;
     public EventService eventService;
 
+    // Running totals over pastPositions, updated as each position closes
     public int wins = 0;
     public int losses = 0;
+    public float realizedProfit = 0.0f;
+
+    // Open positions by key, changed only together with positions under indexLock
+    private final PositionIndex<String> positionsBySymbol = new PositionIndex<>();
+    private final PositionIndex<UUID> positionsByStrategy = new PositionIndex<>();
+    private final PositionIndex<String> positionsByAccount = new PositionIndex<>();
+    private final ConcurrentHashMap<String, Position> positionsByOrderId = new ConcurrentHashMap<>();
+    // Past positions, the latest closed one per symbol and the strategies that had one
+    private final ConcurrentHashMap<String, Position> latestPastPositions = new ConcurrentHashMap<>();
+    private final Set<UUID> pastPositionStrategies = ConcurrentHashMap.newKeySet();
+    private final Object indexLock = new Object();
 
     public void removePosition(String positionId) {
-        Position position = positions.remove(positionId);
-        position.status = PositionStatusEnum.CLOSED;
-        position.closedAt = System.currentTimeMillis();
+        Position position = positions.get(positionId);
 
-        pastPositions.put(positionId, position);
-        positionStrategies.remove(positionId);
+        if (position == null) {
+            return;
+        }
+
+        closePosition(position);
 
         eventService.processEvent(new PositionClosedEvent(position));
     }
 
     public void removePosition(Position position) {
-        positions.remove(position.id);
-        position.status = PositionStatusEnum.CLOSED;
-        position.closedAt = System.currentTimeMillis();
-
-        pastPositions.put(position.id, position);
-        positionStrategies.remove(position.id);
-
-        if (position.realizedProfit > 5) {
-            wins++;
-        }
-        // Anything within $10 is breakeven
-        if (position.realizedProfit < -5) {
-            losses++;
-        }
+        closePosition(position);
 
         eventService.processEvent(new PositionClosedEvent(position));
     }
 
     public void addPosition(Position position) {
-        positions.put(position.id, position);
-    }
+        synchronized (indexLock) {
+            Position previous = positions.put(position.id, position);
 
-    public ArrayList<Position> getPositionsForInstrument(String symbol) {
-        ArrayList<Position> instrumentPositions = new ArrayList<>();
+            if (previous == position) {
+                return;
+            }
 
-        for (Position position : positions.values()) {
-            if (position.symbol.equals(symbol)) {
-                instrumentPositions.add(position);
+            if (previous != null) {
+                unindexPosition(previous);
             }
-        }
 
-        return instrumentPositions;
+            positionsBySymbol.add(position.symbol, position);
+            positionsByStrategy.add(position.strategyId, position);
+            positionsByAccount.add(position.accountId, position);
+
+            for (Order order : position.orders) {
+                positionsByOrderId.put(order.id, position);
+            }
+        }
     }
 
-    public boolean hasPositionsForStrategy(UUID strategyId) {
-        for (Position position : positions.values()) {
-            if (position.strategyId.equals(strategyId)) {
-                return true;
+    /**
+     * Adds the order to the position, indexing it for findPositionForOrder while the position is open
+     */
+    public void addOrderToPosition(Position position, Order order) {
+        synchronized (indexLock) {
+            position.orders.add(order);
+
+            if (positions.get(position.id) == position) {
+                positionsByOrderId.put(order.id, position);
             }
         }
+    }
 
-        return false;
+    /**
+     * Removes the order from the position along with its findPositionForOrder entry
+     */
+    public void removeOrderFromPosition(Position position, Order order) {
+        synchronized (indexLock) {
+            position.orders.remove(order);
+            positionsByOrderId.remove(order.id, position);
+        }
     }
 
-    public boolean hasPastPositionsForStrategy(UUID strategyId) {
-        for (Position position : pastPositions.values()) {
-            if (position.strategyId.equals(strategyId)) {
-                return true;
+    /**
+     * Moves the position to the past positions, updating the indexes and running totals once
+     */
+    private void closePosition(Position position) {
+        synchronized (indexLock) {
+            if (positions.remove(position.id, position)) {
+                unindexPosition(position);
             }
+
+            position.status = PositionStatusEnum.CLOSED;
+            position.closedAt = System.currentTimeMillis();
+
+            positionStrategies.remove(position.id);
+
+            if (pastPositions.put(position.id, position) != null) {
+                return;
+            }
+
+            latestPastPositions.merge(position.symbol, position, (latest, closed) ->
+                closed.createdAt > latest.createdAt ? closed : latest
+            );
+
+            if (position.strategyId != null) {
+                pastPositionStrategies.add(position.strategyId);
+            }
+
+            if (position.realizedProfit == null) {
+                return;
+            }
+
+            realizedProfit += position.realizedProfit;
+
+            if (position.realizedProfit > 5) {
+                wins++;
+            }
+            // Anything within $10 is breakeven
+            if (position.realizedProfit < -5) {
+                losses++;
+            }
+        }
+    }
+
+    private void unindexPosition(Position position) {
+        positionsBySymbol.remove(position.symbol, position);
+        positionsByStrategy.remove(position.strategyId, position);
+        positionsByAccount.remove(position.accountId, position);
+
+        for (Order order : position.orders) {
+            positionsByOrderId.remove(order.id, position);
         }
+    }
+
+    public ArrayList<Position> getPositionsForInstrument(String symbol) {
+        return new ArrayList<>(positionsBySymbol.get(symbol));
+    }
+
+    public boolean hasPositionsForStrategy(UUID strategyId) {
+        return positionsByStrategy.contains(strategyId);
+    }
 
-        return false;
+    public boolean hasPastPositionsForStrategy(UUID strategyId) {
+        return strategyId != null && pastPositionStrategies.contains(strategyId);
     }
 
     public ArrayList<Position> getPositionsForInstrument(String symbol, String accountId) {
         ArrayList<Position> instrumentPositions = new ArrayList<>();
 
-        for (Position position : positions.values()) {
-            if (
-                position.symbol.equals(symbol) &&
-                position.accountId.equals(accountId)
-            ) {
+        for (Position position : positionsBySymbol.get(symbol)) {
+            if (position.accountId.equals(accountId)) {
                 instrumentPositions.add(position);
             }
         }
@@ -124,27 +195,11 @@ public class PositionManager {
     }
 
     public ArrayList<Position> getPositionsForStrategy(UUID strategyId) {
-        ArrayList<Position> strategyPositions = new ArrayList<>();
-
-        for (Position position : positions.values()) {
-            if (position.strategyId.equals(strategyId)) {
-                strategyPositions.add(position);
-            }
-        }
-
-        return strategyPositions;
+        return new ArrayList<>(positionsByStrategy.get(strategyId));
     }
 
     public ArrayList<Position> getPositionsForAccount(String accountId) {
-        ArrayList<Position> accountPositions = new ArrayList<>();
-
-        for (Position position : positions.values()) {
-            if (position.accountId.equals(accountId)) {
-                accountPositions.add(position);
-            }
-        }
-
-        return accountPositions;
+        return new ArrayList<>(positionsByAccount.get(accountId));
     }
 
     public ArrayList<Position> getPositionsForSecurities(ArrayList<String> symbols) {
@@ -158,9 +213,8 @@ public class PositionManager {
     }
 
     public Position findPosition(String symbol, Float quantity, String accountId) {
-        for (Position position : positions.values()) {
+        for (Position position : positionsBySymbol.get(symbol)) {
             if (
-                position.symbol.equals(symbol) &&
                 position.quantity.equals(quantity) &&
                 position.accountId.equals(accountId)
             ) {
@@ -172,11 +226,8 @@ public class PositionManager {
     }
 
     public Position findPosition(String symbol, String accountId) {
-        for (Position position : positions.values()) {
-            if (
-                position.symbol.equals(symbol) &&
-                position.accountId.equals(accountId)
-            ) {
+        for (Position position : positionsBySymbol.get(symbol)) {
+            if (position.accountId.equals(accountId)) {
                 return position;
             }
         }
@@ -185,48 +236,24 @@ public class PositionManager {
     }
 
     public Position findPositionForOrder(String orderId) {
-        for (Position position : positions.values()) {
-            for (Order order : position.orders) {
-                if (order.id.equals(orderId)) {
-                    return position;
-                }
-            }
-        }
-
-        return null;
+        return positionsByOrderId.get(orderId);
     }
 
     public Position findPositionForOrder(String orderId, String accountId) {
-        for (Position position : positions.values()) {
-            for (Order order : position.orders) {
-                if (
-                    order.id.equals(orderId) &&
-                    position.accountId.equals(accountId)
-                ) {
-                    return position;
-                }
-            }
-        }
+        Position position = positionsByOrderId.get(orderId);
 
-        return null;
+        return position != null && position.accountId.equals(accountId)
+            ? position
+            : null;
     }
 
     public Position findPositionForOrder(Order order) {
-        for (Position position : positions.values()) {
-            for (Order positionOrder : position.orders) {
-                if (positionOrder.id.equals(order.id)) {
-                    return position;
-                }
-            }
-        }
-
-        return null;
+        return positionsByOrderId.get(order.id);
     }
 
     public Position findShortPositionForOrder(Order order) {
-        for (Position position : positions.values()) {
+        for (Position position : positionsBySymbol.get(order.symbol)) {
             if (
-                position.symbol.equals(order.symbol) &&
                 position.accountId.equals(order.accountId) &&
                 position.type.equals(PositionTypeEnum.SHORT)
             ) {
@@ -238,9 +265,8 @@ public class PositionManager {
     }
 
     public Position findLongPositionForOrder(Order order) {
-        for (Position position : positions.values()) {
+        for (Position position : positionsBySymbol.get(order.symbol)) {
             if (
-                position.symbol.equals(order.symbol) &&
                 position.accountId.equals(order.accountId) &&
                 position.type.equals(PositionTypeEnum.LONG)
             ) {
@@ -253,7 +279,7 @@ public class PositionManager {
 
     public Position addCloseOrderToPosition(Order order) {
         Position position = findPositionForOrder(order);
-        position.orders.add(order);
+        addOrderToPosition(position, order);
 
         return position;
     }
@@ -282,10 +308,8 @@ public class PositionManager {
     public Float getPositionsValue(String accountId) {
         Float value = 0.0f;
 
-        for (Position position : positions.values()) {
-            if (position.accountId.equals(accountId)) {
-                value += position.marketValue;
-            }
+        for (Position position : positionsByAccount.get(accountId)) {
+            value += position.marketValue;
         }
 
         return value;
@@ -294,21 +318,16 @@ public class PositionManager {
     public Float getPositionsCashBalance(String accountId) {
         Float value = 0.0f;
 
-        for (Position position : positions.values()) {
-            if (position.accountId.equals(accountId)) {
-                value += position.cashBalance;
-            }
+        for (Position position : positionsByAccount.get(accountId)) {
+            value += position.cashBalance;
         }
 
         return value;
     }
 
     public void updatePositions(String symbol, Float latestPrice) {
-        for (Position position : positions.values()) {
-            if (
-                position.status == PositionStatusEnum.OPEN &&
-                position.symbol.equals(symbol)
-            ) {
+        for (Position position : positionsBySymbol.get(symbol)) {
+            if (position.status == PositionStatusEnum.OPEN) {
                 setMarketValueForPosition(position, latestPrice);
             }
         }
@@ -394,24 +413,11 @@ public class PositionManager {
         return exitOrders;
     }
 
+    /**
+     * The most recently created position that has closed for the symbol
+     */
     public Position getLatestPosition(String symbol) {
-        Position latestPosition = null;
-
-        for (Position position : pastPositions.values()) {
-            if (position.symbol.equals(symbol)) {
-                if (latestPosition == null) {
-                    latestPosition = position;
-
-                    continue;
-                }
-
-                if (position.createdAt > latestPosition.createdAt) {
-                    latestPosition = position;
-                }
-            }
-        }
-
-        return latestPosition;
+        return latestPastPositions.get(symbol);
     }
 
     public void updatePositionsFromOrder(Order order) {
@@ -464,7 +470,7 @@ public class PositionManager {
                 ? position.closedValue - position.purchasedValue
                 : position.purchasedValue - position.closedValue;
 
-            position.orders.add(order);
+            addOrderToPosition(position, order);
             position.durationSeconds = (System.currentTimeMillis() - position.createdAt) / 1000;
 
             removePosition(position);
@@ -505,9 +511,8 @@ public class PositionManager {
     }
 
     public void updatePositionsWithPrice(PriceMovement priceMovement) {
-        for (Position position : positions.values()) {
+        for (Position position : positionsBySymbol.get(priceMovement.symbol)) {
             if (
-                position.symbol.equals(priceMovement.symbol) &&
                 position.status == PositionStatusEnum.OPEN &&
                 !positionsInFulfillment.containsKey(position.id)
             ) {
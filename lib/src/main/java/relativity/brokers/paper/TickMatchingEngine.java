@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.brokers.paper;
+
+import relativity.brokers.types.Order;
+import relativity.brokers.types.OrderFill;
+import relativity.brokers.types.OrderSideEnum;
+import relativity.brokers.types.OrderStatusEnum;
+import relativity.events.types.OrderFillEvent;
+import relativity.events.types.OrderFilledEvent;
+import relativity.instruments.data.polygon.types.PolygonQuote;
+import relativity.instruments.data.polygon.types.PolygonTrade;
+import org.tinylog.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fills paper orders from the trade and quote ticks instead of the second bars.
+ * Each resting limit tracks the shares displayed ahead of it at its price: quotes
+ * shrink that queue as size ahead is cancelled, prints at the price consume it
+ * before the order fills, and prints through the price fill the order outright.
+ * Orders that cross the quote take the displayed size on the other side. Fills
+ * are partial, limited by the size each tick printed or displayed.
+ *
+ * Ticks are only copied on the feed thread for symbols with resting orders, the
+ * matching runs on the symbol's shard like the bar matching so an order is never
+ * matched from two threads.
+ */
+public class TickMatchingEngine {
+    // Queue state for orders that are no longer working is dropped past this size
+    static final int PRUNE_THRESHOLD = 64;
+
+    private final TradeManager tradeManager;
+    private final ConcurrentHashMap<String, SymbolState> symbols = new ConcurrentHashMap<>();
+
+    // Only touched from the symbol's shard
+    static class SymbolState {
+        float bidPrice;
+        float askPrice;
+        long bidSize;
+        long askSize;
+        boolean hasQuote = false;
+        final HashMap<String, QueuePosition> queuePositions = new HashMap<>();
+    }
+
+    static class QueuePosition {
+        final Order order;
+        // Unknown until the quote reaches the order's price
+        double sharesAhead = Double.POSITIVE_INFINITY;
+
+        QueuePosition(Order order) {
+            this.order = order;
+        }
+    }
+
+    public TickMatchingEngine(TradeManager tradeManager) {
+        this.tradeManager = tradeManager;
+    }
+
+    /**
+     * Called on the feed thread, the ticks are pooled once handed to the pipeline
+     * so the fields are copied before matching moves to the shard
+     */
+    public void onTrades(List<PolygonTrade> trades) {
+        for (PolygonTrade trade : trades) {
+            if (trade == null || !hasRestingOrders(trade.sym)) {
+                continue;
+            }
+
+            String symbol = trade.sym;
+            float price = trade.p;
+            long size = trade.s;
+
+            tradeManager.pool.runForSymbol(symbol, () -> onTrade(symbol, price, size));
+        }
+    }
+
+    public void onQuotes(List<PolygonQuote> quotes) {
+        for (PolygonQuote quote : quotes) {
+            if (quote == null || !hasRestingOrders(quote.sym)) {
+                continue;
+            }
+
+            String symbol = quote.sym;
+            float bidPrice = quote.bp;
+            long bidSize = quote.bs;
+            float askPrice = quote.ap;
+            long askSize = quote.as;
+
+            tradeManager.pool.runForSymbol(symbol, () -> onQuote(symbol, bidPrice, bidSize, askPrice, askSize));
+        }
+    }
+
+    public boolean hasRestingOrders(String symbol) {
+        PaperOrderBook orderBook = tradeManager.orderManager.getOrderBook(symbol);
+
+        return orderBook != null && !orderBook.isEmpty();
+    }
+
+    /**
+     * A print consumes the queue at its price before filling orders there,
+     * orders priced through the print fill at their limit
+     */
+    public void onTrade(String symbol, float price, long size) {
+        PaperOrderBook orderBook = tradeManager.orderManager.getOrderBook(symbol);
+
+        if (orderBook == null) {
+            return;
+        }
+
+        SymbolState state = getState(symbol);
+        orderBook.promotePendingOrders();
+        // Stops trigger on prints, not on the quote
+        tradeManager.orderManager.triggerStops(symbol, price, price);
+
+        // Without a quote market orders can only take the print
+        if (!state.hasQuote) {
+            long remaining = size;
+
+            for (Order order : orderBook.getMarketOrders()) {
+                remaining -= fill(state, order, remaining, price);
+            }
+        }
+
+        long buyVolume = size;
+
+        for (Set<Order> level : orderBook.getCrossedBuyOrders(price)) {
+            for (Order order : level) {
+                buyVolume -= fillFromPrint(state, order, buyVolume, price);
+            }
+        }
+
+        long sellVolume = size;
+
+        for (Set<Order> level : orderBook.getCrossedSellOrders(price)) {
+            for (Order order : level) {
+                sellVolume -= fillFromPrint(state, order, sellVolume, price);
+            }
+        }
+    }
+
+    /**
+     * Takes the displayed size for orders the quote crossed, then refreshes the
+     * queue ahead of orders resting at or inside the touch
+     */
+    public void onQuote(String symbol, float bidPrice, long bidSize, float askPrice, long askSize) {
+        PaperOrderBook orderBook = tradeManager.orderManager.getOrderBook(symbol);
+
+        if (orderBook == null) {
+            return;
+        }
+
+        SymbolState state = getState(symbol);
+        state.bidPrice = bidPrice;
+        state.bidSize = bidSize;
+        state.askPrice = askPrice;
+        state.askSize = askSize;
+        state.hasQuote = true;
+
+        orderBook.promotePendingOrders();
+
+        long askRemaining = askSize;
+        long bidRemaining = bidSize;
+
+        for (Order order : orderBook.getMarketOrders()) {
+            if (order.side == OrderSideEnum.BUY) {
+                askRemaining -= fill(state, order, askRemaining, askPrice);
+            } else {
+                bidRemaining -= fill(state, order, bidRemaining, bidPrice);
+            }
+        }
+
+        // One sided or crossed quotes only fill market orders
+        if (bidPrice <= 0 || askPrice <= 0 || bidPrice > askPrice) {
+            return;
+        }
+
+        for (Set<Order> level : orderBook.getCrossedBuyOrders(bidPrice)) {
+            for (Order order : level) {
+                if (order.limitPrice >= askPrice) {
+                    askRemaining -= fill(state, order, askRemaining, askPrice);
+                } else {
+                    updateQueue(state, order, order.limitPrice == bidPrice ? bidSize : 0);
+                }
+            }
+        }
+
+        for (Set<Order> level : orderBook.getCrossedSellOrders(askPrice)) {
+            for (Order order : level) {
+                if (order.limitPrice <= bidPrice) {
+                    bidRemaining -= fill(state, order, bidRemaining, bidPrice);
+                } else {
+                    updateQueue(state, order, order.limitPrice == askPrice ? askSize : 0);
+                }
+            }
+        }
+
+        if (state.queuePositions.size() > PRUNE_THRESHOLD) {
+            pruneQueuePositions(state);
+        }
+    }
+
+    private long fillFromPrint(SymbolState state, Order order, long volume, float price) {
+        if (volume <= 0 || order.status != OrderStatusEnum.WORKING) {
+            return 0;
+        }
+
+        // Priced through, everything ahead at our price was already filled
+        if (order.limitPrice != price) {
+            return fill(state, order, volume, order.limitPrice);
+        }
+
+        QueuePosition position = getQueuePosition(state, order);
+
+        // Never quoted at our price, assume the print went to size ahead of us
+        if (Double.isInfinite(position.sharesAhead)) {
+            position.sharesAhead = volume;
+        }
+
+        long consumed = (long) Math.min(position.sharesAhead, volume);
+        position.sharesAhead -= consumed;
+
+        return consumed + fill(state, order, volume - consumed, price);
+    }
+
+    private void updateQueue(SymbolState state, Order order, long displayedAhead) {
+        if (order.status != OrderStatusEnum.WORKING) {
+            return;
+        }
+
+        QueuePosition position = getQueuePosition(state, order);
+
+        // Size ahead only shrinks, anything added to the level joins behind us
+        if (displayedAhead < position.sharesAhead) {
+            position.sharesAhead = displayedAhead;
+        }
+    }
+
+    /**
+     * Fills up to the available size and publishes the fill
+     *
+     * @return The quantity filled
+     */
+    private long fill(SymbolState state, Order order, long available, float price) {
+        if (
+            available <= 0 ||
+            order.status != OrderStatusEnum.WORKING ||
+            tradeManager.orderManager.ordersInFulfillment.containsKey(order.id)
+        ) {
+            return 0;
+        }
+
+        long remaining = (long) (order.quantity - order.filledQuantity);
+        long quantity = Math.min(remaining, available);
+
+        if (quantity <= 0) {
+            return 0;
+        }
+
+        OrderFill orderFill = new OrderFill();
+        orderFill.id = UUID.randomUUID();
+        orderFill.orderId = order.id;
+        orderFill.price = price;
+        orderFill.quantity = (float) quantity;
+        orderFill.accountId = order.accountId;
+        orderFill.createdAt = System.currentTimeMillis();
+
+        ArrayList<OrderFill> fills = new ArrayList<>(1);
+        fills.add(orderFill);
+
+        tradeManager.orderManager.fulfillOrder(order, fills);
+
+        if (order.status == OrderStatusEnum.FILLED) {
+            state.queuePositions.remove(order.id);
+            tradeManager.eventService.processEvent(new OrderFilledEvent(order));
+
+            Logger.info(order.symbol + " Order filled: " + price + " " + order.side + " " + quantity + " " + order.filledQuantity);
+        } else {
+            tradeManager.eventService.processEvent(new OrderFillEvent(order, orderFill));
+        }
+
+        return quantity;
+    }
+
+    private QueuePosition getQueuePosition(SymbolState state, Order order) {
+        QueuePosition position = state.queuePositions.get(order.id);
+
+        if (position == null) {
+            position = new QueuePosition(order);
+            state.queuePositions.put(order.id, position);
+        }
+
+        return position;
+    }
+
+    private void pruneQueuePositions(SymbolState state) {
+        Iterator<QueuePosition> iterator = state.queuePositions.values().iterator();
+
+        while (iterator.hasNext()) {
+            if (!tradeManager.orderManager.isUnfulfilledOrder(iterator.next().order)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private SymbolState getState(String symbol) {
+        SymbolState state = symbols.get(symbol);
+
+        return state != null
+            ? state
+            : symbols.computeIfAbsent(symbol, key -> new SymbolState());
+    }
+}
@@ -22,19 +22,27 @@ import relativity.brokers.types.OrderSideEnum;
 import relativity.brokers.types.OrderTypeEnum;
 import relativity.instruments.PriceMovement;
 import relativity.instruments.types.Instrument;
+import relativity.instruments.types.InstrumentSnapshot;
 
 public class TradeDecisionEngine {
 
     public boolean checkDefaultCriteria(Order order, Instrument instrument, PriceMovement priceMovement) {
-        float high = instrument.pricing.priceStreams.high.getLast();
-        float low = instrument.pricing.priceStreams.low.getLast();
+        // One published bar, the streams can be a bar ahead while this runs
+        InstrumentSnapshot snapshot = instrument.getSnapshot();
 
-        float previousHigh = instrument.pricing.priceStreams.high.get(instrument.pricing.priceStreams.high.size() - 2);
-        float previousLow = instrument.pricing.priceStreams.low.get(instrument.pricing.priceStreams.low.size() - 2);
-        float previousVolume = instrument.pricing.priceStreams.volume.get(instrument.pricing.priceStreams.volume.size() - 2);
+        if (snapshot == null || PaperOrderBook.isAwaitingTrigger(order)) {
+            return false;
+        }
+
+        float high = snapshot.high;
+        float low = snapshot.low;
+
+        float previousHigh = snapshot.previousHigh;
+        float previousLow = snapshot.previousLow;
+        float previousVolume = snapshot.previousVolume;
 
         return (
-            order.type == OrderTypeEnum.MARKET ||
+            PaperOrderBook.isMarketOrder(order) ||
             (
                 (
                     order.type == OrderTypeEnum.LIMIT ||
@@ -62,7 +70,7 @@ public class TradeDecisionEngine {
                     (
                         order.quantity <= previousVolume * 3 ||
                         order.quantity <= (previousVolume + priceMovement.volume) * 3 ||
-                        order.quantity <= instrument.statistics.volume.average
+                        order.quantity <= snapshot.volumeAverage
                     )
                 )
             )
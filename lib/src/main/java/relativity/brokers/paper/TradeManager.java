@@ -20,8 +20,11 @@ package relativity.brokers.paper;
 import relativity.events.EventService;
 import relativity.events.types.OrderFilledEvent;
 import relativity.instruments.PriceMovement;
+import relativity.instruments.data.polygon.types.PolygonQuote;
+import relativity.instruments.data.polygon.types.PolygonTrade;
 import relativity.instruments.InstrumentManager;
 import relativity.instruments.types.Instrument;
+import relativity.instruments.types.InstrumentSnapshot;
 import relativity.brokers.types.*;
 import relativity.workers.ThreadPool;
 import org.jetbrains.annotations.NotNull;
@@ -29,6 +32,8 @@ import org.tinylog.Logger;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -41,6 +46,10 @@ public class TradeManager {
     public EventService eventService;
     public ThreadPool pool;
 
+    // Bar matching fills from the second bars, tick matching from the trades and quotes
+    public PaperMatchingEnum matching = PaperMatchingEnum.fromValue(System.getenv("TRADE_MANAGER_MATCHING"));
+    public final TickMatchingEngine tickMatchingEngine = new TickMatchingEngine(this);
+
     ConcurrentHashMap<String, String> ordersInFulfillment = new ConcurrentHashMap<>();
 
     public void checkOrder(@NotNull Order order, PriceMovement priceMovement) {
@@ -109,11 +118,17 @@ public class TradeManager {
         float min = 0.0f;
         float max = 0.0f;
 
-        float high = instrument.pricing.priceStreams.high.getLast();
-        float low = instrument.pricing.priceStreams.low.getLast();
+        InstrumentSnapshot snapshot = instrument.getSnapshot();
+
+        if (snapshot == null) {
+            return order.limitPrice;
+        }
+
+        float high = snapshot.high;
+        float low = snapshot.low;
 
-        float previousHigh = instrument.pricing.priceStreams.high.get(instrument.pricing.priceStreams.high.size() - 2);
-        float previousLow = instrument.pricing.priceStreams.low.get(instrument.pricing.priceStreams.low.size() - 2);
+        float previousHigh = snapshot.previousHigh;
+        float previousLow = snapshot.previousLow;
 
         double percentExactPrice = Math.random() * 100;
 
@@ -150,21 +165,74 @@ public class TradeManager {
         return (float) (Math.random() * (max - min) + min);
     }
 
+    /**
+     * Runs on the symbol's shard, so only this symbol's book is touched and its
+     * orders are checked inline rather than fanned out again. Only the price levels
+     * the bar reached are visited, the decision engine still checks the volume.
+     */
     public void checkOrders(PriceMovement priceMovement) {
-        for (Order order : orderManager.orders.values()) {
+        if (matching == PaperMatchingEnum.TICK) {
+            return;
+        }
+
+        PaperOrderBook orderBook = orderManager.getOrderBook(priceMovement.symbol);
+
+        if (orderBook == null || orderBook.isEmpty()) {
+            return;
+        }
+
+        // TODO: determine a better spot or event for
+        // upgrading an order to working
+        orderBook.promotePendingOrders();
+
+        // The decision engine also fills limits crossed by the previous bar
+        float low = priceMovement.close;
+        float high = priceMovement.close;
+        InstrumentSnapshot snapshot = instrumentManager.getInstrument(priceMovement.symbol).getSnapshot();
+
+        if (snapshot != null) {
+            low = Math.min(low, Math.min(snapshot.low, snapshot.previousLow));
+            high = Math.max(high, Math.max(snapshot.high, snapshot.previousHigh));
+        }
 
-            // TODO: determine a better spot or event for
-            // upgrading an order to working
-            if (order.status == OrderStatusEnum.PENDING) {
-                order.status = OrderStatusEnum.WORKING;
+        orderManager.triggerStops(priceMovement.symbol, low, high);
+
+        for (Order order : orderBook.getMarketOrders()) {
+            checkWorkingOrder(order, priceMovement);
+        }
+
+        for (Set<Order> level : orderBook.getCrossedBuyOrders(low)) {
+            for (Order order : level) {
+                checkWorkingOrder(order, priceMovement);
             }
+        }
 
-            if (
-                order.status == OrderStatusEnum.WORKING &&
-                order.symbol == priceMovement.symbol
-            ) {
-                pool.runAsync(() -> checkOrder(order, priceMovement));
+        for (Set<Order> level : orderBook.getCrossedSellOrders(high)) {
+            for (Order order : level) {
+                checkWorkingOrder(order, priceMovement);
             }
         }
     }
+
+    private void checkWorkingOrder(Order order, PriceMovement priceMovement) {
+        if (order.status == OrderStatusEnum.WORKING) {
+            checkOrder(order, priceMovement);
+        }
+    }
+
+    /**
+     * Called inline from the feed before the ticks are handed to the pipeline,
+     * the matching itself is moved onto each symbol's shard
+     */
+    public void matchTrades(List<PolygonTrade> trades) {
+        if (matching == PaperMatchingEnum.TICK) {
+            tickMatchingEngine.onTrades(trades);
+        }
+    }
+
+    public void matchQuotes(List<PolygonQuote> quotes) {
+        if (matching == PaperMatchingEnum.TICK) {
+            tickMatchingEngine.onQuotes(quotes);
+        }
+    }
 }
@@ -47,7 +47,6 @@ public class Account {
     public Float outstandingMarginBalance;
     public String userId;
 
-    public Object balancesLock = new Object();
     // TODO: These data structures should be concurrent
     public ArrayList<Position> positions = new ArrayList<>();
     public ArrayList<Position> orders = new ArrayList<>();
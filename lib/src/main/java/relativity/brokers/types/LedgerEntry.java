@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.brokers.types;
+
+/**
+ * One change to an account's balances. Amounts are deltas in the ledger's
+ * fixed point units, the account's totals are the sum of its entries.
+ */
+public class LedgerEntry {
+    public LedgerEntryTypeEnum type;
+    public String accountId;
+    // The order or position the entry came from, null for adjustments
+    public String referenceId;
+    public long cash;
+    public long margin;
+    public long outstandingMargin;
+    public long committedCash;
+    public long profit;
+    public long createdAt;
+}
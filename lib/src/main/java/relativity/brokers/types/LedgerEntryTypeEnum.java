@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.brokers.types;
+
+public enum LedgerEntryTypeEnum {
+    // The account's starting balances
+    OPENING_BALANCE("opening_balance"),
+    CASH_ADJUSTMENT("cash_adjustment"),
+    MARGIN_ADJUSTMENT("margin_adjustment"),
+    // Cash and margin moved onto an open order
+    ORDER_RESERVED("order_reserved"),
+    // Cash, margin and profit returned from a closed position
+    POSITION_SETTLED("position_settled"),
+    PROFIT_ADJUSTMENT("profit_adjustment");
+
+    public final String value;
+
+    LedgerEntryTypeEnum(String value) {
+        this.value = value;
+    }
+}
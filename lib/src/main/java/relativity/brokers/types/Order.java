@@ -45,6 +45,8 @@ public class Order {
     public Long expiredAt;
     public Long canceledAt;
     public Long failedAt;
+    // Set once a stop or stop limit order's stop price is reached
+    public Long triggeredAt;
     public Long createdAt;
     public Long updatedAt;
     public Float cashBalance;
@@ -24,6 +24,7 @@ public class OrderOptions {
     public Float quantity;
     public OrderSideEnum orderSide = OrderSideEnum.BUY;
     public Float limitPrice;
+    public Float stopPrice;
     public boolean limit = true;
     public String accountId;
     public String userId;
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.brokers.types;
+
+// How the paper broker decides fills
+public enum PaperMatchingEnum {
+    // From each second bar's range and volume
+    BAR("bar"),
+    // From the trade and quote ticks, with a simulated queue position and partial fills
+    TICK("tick");
+
+    public final String value;
+
+    PaperMatchingEnum(String value) {
+        this.value = value;
+    }
+
+    public static PaperMatchingEnum fromValue(String value) {
+        for (PaperMatchingEnum matching : values()) {
+            if (matching.value.equals(value)) {
+                return matching;
+            }
+        }
+
+        return BAR;
+    }
+}
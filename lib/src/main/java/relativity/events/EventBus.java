@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.events;
+
+import relativity.events.types.BaseEvent;
+import relativity.workers.ExecutorProfileEnum;
+import relativity.workers.ThreadPool;
+import org.tinylog.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Routes events to the subscribers registered for their type.
+ * Each type resolves to a pre-sorted subscriber array that is only rebuilt
+ * when a subscription changes, so publishing never touches the registry
+ * and event types nobody listens to cost a single array lookup.
+ */
+public class EventBus {
+    private static final EventSubscription[] NONE = new EventSubscription[0];
+
+    private volatile EventSubscription[][] subscriptions = new EventSubscription[EventTypesEnum.values().length][];
+    private final Object lock = new Object();
+
+    /**************************************************************************
+     * Injected Dependencies
+     *************************************************************************/
+
+    public ThreadPool pool;
+
+    public EventBus() {
+        Arrays.fill(subscriptions, NONE);
+    }
+
+    public <E extends BaseEvent> EventSubscription subscribe(
+        EventTypesEnum type,
+        String name,
+        int priority,
+        EventDispatchEnum dispatch,
+        ExecutorProfileEnum profile,
+        EventSubscriber<E> handler
+    ) {
+        EventSubscription subscription = new EventSubscription(type, name, priority, dispatch, profile, handler);
+
+        synchronized (lock) {
+            ArrayList<EventSubscription> updated = new ArrayList<>(Arrays.asList(subscriptions[type.ordinal()]));
+            updated.add(subscription);
+            updated.sort(Comparator.comparingInt((EventSubscription s) -> s.priority).reversed());
+
+            replace(type, updated.toArray(NONE));
+        }
+
+        return subscription;
+    }
+
+    public void unsubscribe(EventSubscription subscription) {
+        synchronized (lock) {
+            ArrayList<EventSubscription> updated = new ArrayList<>(Arrays.asList(subscriptions[subscription.type.ordinal()]));
+
+            if (updated.remove(subscription)) {
+                replace(subscription.type, updated.toArray(NONE));
+            }
+        }
+    }
+
+    public void publish(BaseEvent event) {
+        if (event.type == null) {
+            Logger.info("Unknown event type " + event.name);
+
+            return;
+        }
+
+        EventSubscription[] subscribers = subscriptions[event.type.ordinal()];
+
+        for (EventSubscription subscription : subscribers) {
+            dispatch(subscription, event);
+        }
+    }
+
+    public boolean hasSubscribers(EventTypesEnum type) {
+        return subscriptions[type.ordinal()].length > 0;
+    }
+
+    public EventSubscription[] getSubscriptions(EventTypesEnum type) {
+        return subscriptions[type.ordinal()].clone();
+    }
+
+    private void dispatch(EventSubscription subscription, BaseEvent event) {
+        switch (subscription.dispatch) {
+            case INLINE -> deliver(subscription, event);
+            case SHARDED -> {
+                if (event.symbol != null) {
+                    pool.runForSymbol(event.symbol, () -> deliver(subscription, event));
+                } else {
+                    pool.runAsync(subscription.profile, () -> deliver(subscription, event));
+                }
+            }
+            default -> pool.runAsync(subscription.profile, () -> deliver(subscription, event));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deliver(EventSubscription subscription, BaseEvent event) {
+        try {
+            subscription.handler.onEvent(event);
+        } catch (Throwable e) {
+            Logger.warn("Subscriber " + subscription.name + " failed on " + event.type);
+            e.printStackTrace();
+        }
+    }
+
+    private void replace(EventTypesEnum type, EventSubscription[] subscribers) {
+        EventSubscription[][] updated = subscriptions.clone();
+        updated[type.ordinal()] = subscribers;
+
+        // Publish the whole table at once so readers never see a partial update
+        subscriptions = updated;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.events;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Fixed size ring of pre-allocated, mutable slots.
+ * Any number of producers claim a sequence, fill the slot in place and
+ * publish it. A single consumer drains published slots in order, after
+ * which each slot is reset and handed back to the producers.
+ * Nothing is allocated once the ring has been created.
+ *
+ * Producer usage:
+ *     long sequence = ring.next();
+ *     PolygonTrade trade = ring.get(sequence);
+ *     // fill trade
+ *     ring.publish(sequence);
+ */
+public class EventRingBuffer<T> {
+    public interface SlotHandler<T> {
+        void onSlot(T slot, long sequence, boolean endOfBatch);
+    }
+
+    private final Object[] slots;
+    private final AtomicLongArray published;
+    private final Consumer<T> resetter;
+    private final int capacity;
+    private final int mask;
+
+    // Last sequence handed to a producer
+    private final AtomicLong claimed = new AtomicLong(-1);
+
+    // Last sequence the consumer finished with, producers can not lap it
+    private volatile long consumed = -1;
+
+    public EventRingBuffer(int capacity, Supplier<T> factory, Consumer<T> resetter) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new Error("Ring buffer capacity must be a power of two");
+        }
+
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.resetter = resetter;
+        this.slots = new Object[capacity];
+        this.published = new AtomicLongArray(capacity);
+
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = factory.get();
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Claims the next sequence, waiting for the consumer while the ring is full
+     */
+    public long next() {
+        long sequence;
+        int spins = 0;
+
+        while ((sequence = tryNext()) < 0) {
+            if (++spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+
+        return sequence;
+    }
+
+    /**
+     * Claims the next sequence or returns -1 when the ring is full
+     */
+    public long tryNext() {
+        while (true) {
+            long current = claimed.get();
+            long next = current + 1;
+
+            if (next - capacity > consumed) {
+                return -1;
+            }
+
+            if (claimed.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(long sequence) {
+        return (T) slots[(int) (sequence & mask)];
+    }
+
+    public void publish(long sequence) {
+        published.lazySet((int) (sequence & mask), sequence);
+    }
+
+    /**
+     * Hands every contiguous published slot to the handler, then resets the slots
+     * and releases them to the producers. Must only be called by the consumer thread.
+     *
+     * @return Number of slots processed
+     */
+    public int drain(SlotHandler<T> handler) {
+        long start = consumed + 1;
+        long end = start - 1;
+
+        while (end + 1 - start < capacity && published.get((int) ((end + 1) & mask)) == end + 1) {
+            end++;
+        }
+
+        if (end < start) {
+            return 0;
+        }
+
+        for (long sequence = start; sequence <= end; sequence++) {
+            T slot = get(sequence);
+
+            try {
+                handler.onSlot(slot, sequence, sequence == end);
+            } catch (Throwable e) {
+                e.printStackTrace();
+            } finally {
+                resetter.accept(slot);
+            }
+        }
+
+        consumed = end;
+
+        return (int) (end - start + 1);
+    }
+
+    /**
+     * Claimed slots the consumer has not finished with yet
+     */
+    public long getBacklog() {
+        return claimed.get() - consumed;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -23,146 +23,231 @@ import relativity.brokers.paper.PositionManager;
 import relativity.brokers.paper.TradeManager;
 import relativity.instruments.InstrumentManager;
 import relativity.instruments.InstrumentQuoteAndTradeManager;
+import relativity.instruments.data.polygon.types.PolygonQuote;
+import relativity.instruments.data.polygon.types.PolygonTrade;
 import relativity.events.types.*;
 import relativity.strategies.BaseStrategy;
 import relativity.strategies.StrategyManager;
 import relativity.strategies.listeners.MoverStrategyListener;
+import relativity.workers.ExecutorProfileEnum;
 import relativity.workers.ThreadPool;
 import org.tinylog.Logger;
 
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 /**
  * Service to process events
- * and route them to the appropriate handler
+ * and route them to the subscribers on the event bus
  */
 public class EventService {
 
     public StrategyManager strategyManager;
     public final MoverStrategyListener moverStrategyListener = new MoverStrategyListener();
+    public final EventBus eventBus = new EventBus();
 
     /**************************************************************************
      * Injected Dependencies
      *************************************************************************/
 
-    public InstrumentManager instrumentManager;
+    private InstrumentManager instrumentManager;
     public AccountManager accountManager;
     public OrderManager orderManager;
     public PositionManager positionManager;
     public TradeManager tradeManager;
     public InstrumentQuoteAndTradeManager instrumentQuoteAndTradeManager;
-    public ThreadPool pool;
+    public MarketDataPipeline marketDataPipeline;
+    private ThreadPool pool;
 
     public EventService() {
         moverStrategyListener.eventService = this;
+
+        registerDefaultSubscribers();
+    }
+
+    public void setInstrumentManager(InstrumentManager instrumentManager) {
+        this.instrumentManager = instrumentManager;
+
+        declareStatistics();
+    }
+
+    public void setPool(ThreadPool pool) {
+        this.pool = pool;
+        eventBus.pool = pool;
+    }
+
+    /**
+     * Registers a subscriber for one event type. Strategy listeners can
+     * be added or removed at runtime without touching the dispatch path.
+     */
+    public <E extends BaseEvent> EventSubscription subscribe(
+        EventTypesEnum type,
+        String name,
+        int priority,
+        EventDispatchEnum dispatch,
+        ExecutorProfileEnum profile,
+        EventSubscriber<E> handler
+    ) {
+        return eventBus.subscribe(type, name, priority, dispatch, profile, handler);
+    }
+
+    public void unsubscribe(EventSubscription subscription) {
+        eventBus.unsubscribe(subscription);
     }
 
     public void processEvent(BaseEvent event) {
-        Logger.info("Unknown event type");
+        publish(event);
     }
 
     public void processEvent(InstrumentAnalysisEvent event) {
-        try {
-            CompletableFuture.allOf(
-                pool.runAsync(() -> moverStrategyListener.second(
-                    event.instrument,
-                    event.lastTradeAggregate
-                )),
-                pool.runAsync(() -> strategyManager.newAnalysis(event.instrument))// ,
-    //            pool.runAsync(() -> pennyBreakoutStrategyListener.minute(event.security, event.lastTradeAggregate))
-            );
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-//        Logger.info("Processing Security Analysis Event");
+        publish(event);
     }
 
     public void processEvent(InstrumentMinuteAnalysisEvent event) {
-        CompletableFuture.allOf(
-            pool.runAsync(() -> moverStrategyListener.minute(
-                event.instrument,
-                event.lastTradeAggregate
-            ))
-        );
+        publish(event);
     }
 
     public void processEvent(InstrumentPriceChangeEvent event) throws ExecutionException, InterruptedException {
-        try {
-            CompletableFuture.allOf(
-                pool.runAsync(() -> orderManager.updateOrdersWithPrice(event.priceMovement)),
-                pool.runAsync(() -> positionManager.updatePositionsWithPrice(event.priceMovement)),
-                pool.runAsync(() -> tradeManager.checkOrders(event.priceMovement))
-            );
-
-        } catch (Exception e) {
-            e.printStackTrace();
-        } catch (Error e) {
-            e.printStackTrace();
-        } catch (Throwable e) {
-            e.printStackTrace();
-        }
-
-//        Logger.info("Processing Security Price Change Event");
+        publish(event);
     }
 
     public void processEvent(ActivateStrategyEvent event) {
-        pool.runAsync(() -> {
-            strategyManager.addStrategy(
-                event.strategyName,
-                event.instrument,
-                event.positionType
-            );
-        });
+        publish(event);
     }
 
     public void processEvent(PositionOpenedEvent event) {
-        CompletableFuture.allOf(
-            pool.runAsync(() -> {
-                BaseStrategy strategy = strategyManager.getStrategy(event.position.strategyId);
-
-                if (strategy != null) {
-                    strategy.setThresholdsOnPosition(event.position);
-                }
-            })
-        );
+        publish(event);
 
         Logger.info(event.position.type + " " + event.position.symbol + " Created: " + event.position.quantity + " " + event.position.filledAveragePrice + " " + event.position.status + " " + event.position.marketValue);
     }
 
     public void processEvent(PositionClosedEvent event) {
-        CompletableFuture.allOf(
-            pool.runAsync(() -> accountManager.settlePosition(event.position)),
-            pool.runAsync(() -> strategyManager.exitStrategy(event.position.strategyId))
-        );
+        publish(event);
 
         Logger.info(event.position.symbol + " " + event.position.type + " Position Closed: $" + String.format("%.2f", event.position.realizedProfit) + " Price: $" + String.format("%.2f", event.position.filledAveragePrice) + " Closed Price: $" + String.format("%.2f", event.position.closedAveragePrice) + " purchasedValue " + event.position.purchasedValue + " closedValue " + event.position.closedValue);
         Logger.info("Wins " + positionManager.wins + " Losses " + positionManager.losses + " out of " + positionManager.pastPositions.size());
     }
 
     public void processEvent(OrderCreatedEvent event) {
-        pool.runAsync(() -> accountManager.updateBalancesFromOpenOrder(event.order));
+        publish(event);
 
         Logger.info(event.order.symbol + " Order created " + event.order.side + " " + event.order.intent + " " + event.order.limitPrice + " " + event.order.quantity + " " + event.order.reason);
     }
 
     public void processEvent(OrderFilledEvent event) {
-        CompletableFuture.allOf(
-            pool.runAsync(() -> accountManager.settleOrderFill(event.order)),
-            pool.runAsync(() -> positionManager.updatePositionsFromOrder(event.order))
-        );
+        publish(event);
 
 //        Logger.info("Processing Order Filled Event");
     }
 
+    public void processEvent(OrderFillEvent event) {
+        publish(event);
+    }
+
     public void processEvent(TradeEvent event) {
-        pool.runAsync(() -> instrumentQuoteAndTradeManager.processTradeData(event.trades));
+        publish(event);
     }
 
     public void processEvent(QuoteEvent event) {
 //        Logger.info("Processing Quote Event");
-        pool.runAsync(() -> instrumentQuoteAndTradeManager.processQuoteData(event.quotes));
+        publish(event);
+    }
+
+    private void publish(BaseEvent event) {
+        eventBus.publish(event);
+    }
+
+    /**
+     * Declares what the default listeners read, once the instrument manager is injected
+     */
+    private void declareStatistics() {
+        if (instrumentManager == null) {
+            return;
+        }
+
+        instrumentManager.statisticsDemand.require("moverStrategyListener", moverStrategyListener.getRequiredStatistics());
     }
 
-    // TODO: Also need an order fill event for partial fills
+    /**************************************************************************
+     * Default Subscribers
+     *************************************************************************/
+
+    private void registerDefaultSubscribers() {
+        subscribe(EventTypesEnum.INSTRUMENT_ANALYSIS, "moverStrategyListener.second", 100, EventDispatchEnum.EXECUTOR, ExecutorProfileEnum.PLATFORM,
+            (InstrumentAnalysisEvent event) -> moverStrategyListener.second(event.instrument, event.lastTradeAggregate));
+        subscribe(EventTypesEnum.INSTRUMENT_ANALYSIS, "strategyManager.newAnalysis", 90, EventDispatchEnum.EXECUTOR, ExecutorProfileEnum.PLATFORM,
+            (InstrumentAnalysisEvent event) -> strategyManager.newAnalysis(event.instrument));
+//        subscribe(EventTypesEnum.INSTRUMENT_ANALYSIS, "pennyBreakoutStrategyListener.minute", 80, EventDispatchEnum.EXECUTOR, ExecutorProfileEnum.PLATFORM,
+//            (InstrumentAnalysisEvent event) -> pennyBreakoutStrategyListener.minute(event.security, event.lastTradeAggregate));
+
+        subscribe(EventTypesEnum.INSTRUMENT_MINUTE_ANALYSIS, "moverStrategyListener.minute", 100, EventDispatchEnum.EXECUTOR, ExecutorProfileEnum.PLATFORM,
+            (InstrumentMinuteAnalysisEvent event) -> moverStrategyListener.minute(event.instrument, event.lastTradeAggregate));
+
+        // Orders, positions and fills for a symbol are only touched from its shard,
+        // so these run in priority order instead of racing each other
+        subscribe(EventTypesEnum.INSTRUMENT_PRICE_CHANGE, "orderManager.updateOrdersWithPrice", 300, EventDispatchEnum.SHARDED, ExecutorProfileEnum.PINNED,
+            (InstrumentPriceChangeEvent event) -> orderManager.updateOrdersWithPrice(event.priceMovement));
+        subscribe(EventTypesEnum.INSTRUMENT_PRICE_CHANGE, "positionManager.updatePositionsWithPrice", 200, EventDispatchEnum.SHARDED, ExecutorProfileEnum.PINNED,
+            (InstrumentPriceChangeEvent event) -> positionManager.updatePositionsWithPrice(event.priceMovement));
+        subscribe(EventTypesEnum.INSTRUMENT_PRICE_CHANGE, "tradeManager.checkOrders", 100, EventDispatchEnum.SHARDED, ExecutorProfileEnum.PINNED,
+            (InstrumentPriceChangeEvent event) -> tradeManager.checkOrders(event.priceMovement));
+
+        subscribe(EventTypesEnum.ACTIVATE_STRATEGY, "strategyManager.addStrategy", 100, EventDispatchEnum.EXECUTOR, ExecutorProfileEnum.PLATFORM,
+            (ActivateStrategyEvent event) -> strategyManager.addStrategy(event.strategyName, event.instrument, event.positionType));
+
+        subscribe(EventTypesEnum.POSITION_OPENED, "strategy.setThresholdsOnPosition", 100, EventDispatchEnum.EXECUTOR, ExecutorProfileEnum.PLATFORM,
+            (PositionOpenedEvent event) -> {
+                BaseStrategy strategy = strategyManager.getStrategy(event.position.strategyId);
+
+                if (strategy != null) {
+                    strategy.setThresholdsOnPosition(event.position);
+                }
+            });
+
+        subscribe(EventTypesEnum.POSITION_CLOSED, "accountManager.settlePosition", 100, EventDispatchEnum.EXECUTOR, ExecutorProfileEnum.VIRTUAL,
+            (PositionClosedEvent event) -> accountManager.settlePosition(event.position));
+        subscribe(EventTypesEnum.POSITION_CLOSED, "strategyManager.exitStrategy", 90, EventDispatchEnum.EXECUTOR, ExecutorProfileEnum.PLATFORM,
+            (PositionClosedEvent event) -> strategyManager.exitStrategy(event.position.strategyId));
+
+        subscribe(EventTypesEnum.ORDER_FILLED, "accountManager.settleOrderFill", 100, EventDispatchEnum.EXECUTOR, ExecutorProfileEnum.PLATFORM,
+            (OrderFilledEvent event) -> accountManager.settleOrderFill(event.order));
+        subscribe(EventTypesEnum.ORDER_FILLED, "positionManager.updatePositionsFromOrder", 90, EventDispatchEnum.EXECUTOR, ExecutorProfileEnum.PLATFORM,
+            (OrderFilledEvent event) -> positionManager.updatePositionsFromOrder(event.order));
+
+        // Tick matching reads the raw ticks before the pipeline copies and recycles them
+        subscribe(EventTypesEnum.TRADE, "tradeManager.matchTrades", 200, EventDispatchEnum.INLINE, ExecutorProfileEnum.PINNED,
+            (TradeEvent event) -> tradeManager.matchTrades(event.trades));
+        subscribe(EventTypesEnum.QUOTE, "tradeManager.matchQuotes", 200, EventDispatchEnum.INLINE, ExecutorProfileEnum.PINNED,
+            (QuoteEvent event) -> tradeManager.matchQuotes(event.quotes));
+
+        // Market data goes through the bounded pipeline when one is injected so bursts
+        // are shed by its backpressure policy instead of queueing without limit
+        subscribe(EventTypesEnum.TRADE, "instrumentQuoteAndTradeManager.processTradeData", 100, EventDispatchEnum.INLINE, ExecutorProfileEnum.PINNED,
+            (TradeEvent event) -> {
+                if (marketDataPipeline == null) {
+                    pool.runAsync(ExecutorProfileEnum.PINNED, () -> instrumentQuoteAndTradeManager.processTradeData(event.trades));
+
+                    return;
+                }
+
+                for (PolygonTrade trade : event.trades) {
+                    if (trade != null) {
+                        marketDataPipeline.offerTrade(trade);
+                    }
+                }
+            });
+        subscribe(EventTypesEnum.QUOTE, "instrumentQuoteAndTradeManager.processQuoteData", 100, EventDispatchEnum.INLINE, ExecutorProfileEnum.PINNED,
+            (QuoteEvent event) -> {
+                if (marketDataPipeline == null) {
+                    pool.runAsync(ExecutorProfileEnum.PINNED, () -> instrumentQuoteAndTradeManager.processQuoteData(event.quotes));
+
+                    return;
+                }
+
+                for (PolygonQuote quote : event.quotes) {
+                    if (quote != null) {
+                        marketDataPipeline.offerQuote(quote);
+                    }
+                }
+            });
+    }
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.events;
+
+import relativity.workers.ExecutorProfileEnum;
+
+/**
+ * A subscriber registered on the event bus for a single event type.
+ * Higher priorities are dispatched first.
+ */
+public class EventSubscription {
+    public final EventTypesEnum type;
+    public final String name;
+    public final int priority;
+    public final EventDispatchEnum dispatch;
+
+    // Executor used for EXECUTOR dispatch, and for SHARDED events without a symbol
+    public final ExecutorProfileEnum profile;
+    public final EventSubscriber handler;
+
+    public EventSubscription(
+        EventTypesEnum type,
+        String name,
+        int priority,
+        EventDispatchEnum dispatch,
+        ExecutorProfileEnum profile,
+        EventSubscriber handler
+    ) {
+        this.type = type;
+        this.name = name;
+        this.priority = priority;
+        this.dispatch = dispatch;
+        this.profile = profile;
+        this.handler = handler;
+    }
+
+    public String toString() {
+        return type + " " + name + " priority: " + priority + " dispatch: " + dispatch.value + " profile: " + profile.value;
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.events;
+
+import relativity.instruments.InstrumentQuoteAndTradeManager;
+import relativity.instruments.SymbolIndexedArray;
+import relativity.instruments.data.polygon.types.PolygonQuote;
+import relativity.instruments.data.polygon.types.PolygonTrade;
+import org.tinylog.Logger;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves trades and quotes from the socket to the quote and trade processors
+ * through pre-allocated rings instead of per message events and lists.
+ * The socket thread claims a slot, fills it and publishes it, and a
+ * consumer thread per ring aggregates the slot in place.
+ *
+ * Once a ring is backed up past the high watermark, messages for symbols
+ * without an active strategy are shed according to the ring's policy so
+ * watched symbols do not fall behind.
+ */
+public class MarketDataPipeline {
+    public final EventRingBuffer<PolygonTrade> trades;
+    public final EventRingBuffer<PolygonQuote> quotes;
+
+    // Trades carry volume that can not be merged, so CONFLATE blocks for trades
+    public BackpressurePolicyEnum tradePolicy = BackpressurePolicyEnum.BLOCK;
+    public BackpressurePolicyEnum quotePolicy = BackpressurePolicyEnum.CONFLATE;
+    public int highWatermarkPercent = 75;
+
+    /**************************************************************************
+     * Shed Counters
+     *************************************************************************/
+
+    public final LongAdder droppedTrades = new LongAdder();
+    public final LongAdder droppedQuotes = new LongAdder();
+    public final LongAdder conflatedQuotes = new LongAdder();
+    public final LongAdder blockedOffers = new LongAdder();
+
+    // Indexed by SymbolTable id, created the first time a symbol's quote is offered
+    private final SymbolIndexedArray<ConflatedQuote> conflated = new SymbolIndexedArray<>(10_000);
+    private final ConcurrentLinkedQueue<ConflatedQuote> pendingConflated = new ConcurrentLinkedQueue<>();
+    private final PolygonQuote conflatedScratch = new PolygonQuote();
+
+    private volatile boolean running = false;
+    private Thread tradeConsumer;
+    private Thread quoteConsumer;
+
+    /**************************************************************************
+     * Injected Dependencies
+     *************************************************************************/
+
+    public InstrumentQuoteAndTradeManager instrumentQuoteAndTradeManager;
+
+    private final EventRingBuffer.SlotHandler<PolygonTrade> tradeHandler = (trade, sequence, endOfBatch) -> instrumentQuoteAndTradeManager.addTrade(trade);
+    private final EventRingBuffer.SlotHandler<PolygonQuote> quoteHandler = (quote, sequence, endOfBatch) -> {
+        try {
+            instrumentQuoteAndTradeManager.addQuote(quote);
+        } finally {
+            conflated.get(quote.symbolId).inRing.decrementAndGet();
+        }
+    };
+
+    public MarketDataPipeline() {
+        this(1 << 16, 1 << 17);
+    }
+
+    public MarketDataPipeline(int tradeCapacity, int quoteCapacity) {
+        trades = new EventRingBuffer<>(tradeCapacity, PolygonTrade::new, PolygonTrade::reset);
+        quotes = new EventRingBuffer<>(quoteCapacity, PolygonQuote::new, PolygonQuote::reset);
+    }
+
+    /**
+     * Copies the trade into the ring, the caller can reuse its instance right away
+     *
+     * @return false when the trade was shed
+     */
+    public boolean offerTrade(PolygonTrade trade) {
+        int symbolId = instrumentQuoteAndTradeManager.resolveSymbolId(trade);
+
+        if (
+            tradePolicy == BackpressurePolicyEnum.DROP_UNWATCHED &&
+            isBackedUp(trades) &&
+            !instrumentQuoteAndTradeManager.isWatched(symbolId)
+        ) {
+            droppedTrades.increment();
+
+            return false;
+        }
+
+        long sequence = trades.tryNext();
+
+        if (sequence < 0) {
+            blockedOffers.increment();
+            sequence = trades.next();
+        }
+
+        trades.get(sequence).copyFrom(trade);
+        trades.publish(sequence);
+
+        return true;
+    }
+
+    /**
+     * Copies the quote into the ring, the caller can reuse its instance right away
+     *
+     * @return false when the quote was dropped or conflated
+     */
+    public boolean offerQuote(PolygonQuote quote) {
+        int symbolId = instrumentQuoteAndTradeManager.resolveSymbolId(quote);
+        ConflatedQuote latest = getConflatedQuote(symbolId);
+
+        if (
+            quotePolicy != BackpressurePolicyEnum.BLOCK &&
+            (isBackedUp(quotes) || latest.pending) &&
+            !instrumentQuoteAndTradeManager.isWatched(symbolId)
+        ) {
+            if (quotePolicy == BackpressurePolicyEnum.CONFLATE) {
+                conflate(latest, quote);
+            } else {
+                droppedQuotes.increment();
+            }
+
+            return false;
+        }
+
+        // A symbol that became watched skips conflation, this quote is newer than the pending one
+        if (latest.pending) {
+            synchronized (latest) {
+                latest.pending = false;
+            }
+        }
+
+        latest.inRing.incrementAndGet();
+
+        long sequence = quotes.tryNext();
+
+        if (sequence < 0) {
+            blockedOffers.increment();
+            sequence = quotes.next();
+        }
+
+        quotes.get(sequence).copyFrom(quote);
+        quotes.publish(sequence);
+
+        return true;
+    }
+
+    public void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+
+        tradeConsumer = new Thread(() -> consume(trades, tradeHandler, false), "relativity-trade-consumer");
+        quoteConsumer = new Thread(() -> consume(quotes, quoteHandler, true), "relativity-quote-consumer");
+
+        tradeConsumer.setPriority(Thread.MAX_PRIORITY);
+        quoteConsumer.setPriority(Thread.MAX_PRIORITY);
+
+        tradeConsumer.start();
+        quoteConsumer.start();
+
+        Logger.info("Market data pipeline started");
+    }
+
+    public void stop() {
+        running = false;
+
+        LockSupport.unpark(tradeConsumer);
+        LockSupport.unpark(quoteConsumer);
+    }
+
+    public void logStatistics() {
+        Logger.info(
+            "Market data trades backlog: " + trades.getBacklog() +
+            " quotes backlog: " + quotes.getBacklog() +
+            " dropped trades: " + droppedTrades.sum() +
+            " dropped quotes: " + droppedQuotes.sum() +
+            " conflated quotes: " + conflatedQuotes.sum() +
+            " blocked offers: " + blockedOffers.sum()
+        );
+    }
+
+    private boolean isBackedUp(EventRingBuffer<?> ring) {
+        return ring.getBacklog() * 100 >= (long) ring.getCapacity() * highWatermarkPercent;
+    }
+
+    private ConflatedQuote getConflatedQuote(int symbolId) {
+        ConflatedQuote latest = conflated.get(symbolId);
+
+        return latest != null
+            ? latest
+            : conflated.computeIfAbsent(symbolId, id -> new ConflatedQuote());
+    }
+
+    // Keeps conflating while the quote is pending so quotes stay in order
+    private void conflate(ConflatedQuote latest, PolygonQuote quote) {
+        synchronized (latest) {
+            if (latest.pending) {
+                conflatedQuotes.increment();
+            } else {
+                latest.pending = true;
+                pendingConflated.add(latest);
+            }
+
+            latest.quote.copyFrom(quote);
+        }
+    }
+
+    /**
+     * A pending quote is newer than anything its symbol has in the ring, so it
+     * waits until those are applied. Quotes published after the consumer's last
+     * drain would otherwise overwrite it with older state.
+     */
+    private void drainConflated() {
+        ConflatedQuote latest;
+
+        for (int remaining = pendingConflated.size(); remaining > 0; remaining--) {
+            if ((latest = pendingConflated.poll()) == null) {
+                break;
+            }
+
+            synchronized (latest) {
+                // Superseded by a quote that went through the ring
+                if (!latest.pending) {
+                    continue;
+                }
+
+                if (latest.inRing.get() > 0) {
+                    pendingConflated.add(latest);
+
+                    continue;
+                }
+
+                conflatedScratch.copyFrom(latest.quote);
+                latest.pending = false;
+            }
+
+            try {
+                instrumentQuoteAndTradeManager.addQuote(conflatedScratch);
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private <T> void consume(EventRingBuffer<T> ring, EventRingBuffer.SlotHandler<T> handler, boolean hasConflated) {
+        int idle = 0;
+
+        while (running) {
+            int processed = ring.drain(handler);
+
+            if (hasConflated && !pendingConflated.isEmpty()) {
+                drainConflated();
+            }
+
+            if (processed > 0) {
+                idle = 0;
+
+                continue;
+            }
+
+            // Spin briefly to catch bursts, then back off
+            if (++idle < 100) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(50_000);
+            }
+        }
+
+        // Flush anything published before stopping
+        ring.drain(handler);
+
+        if (hasConflated) {
+            drainConflated();
+        }
+    }
+
+    private static class ConflatedQuote {
+        final PolygonQuote quote = new PolygonQuote();
+        // Quotes for the symbol published to the ring and not yet applied
+        final AtomicInteger inRing = new AtomicInteger();
+        volatile boolean pending = false;
+    }
+}
@@ -30,9 +30,11 @@ public class ActivateStrategyEvent extends BaseEvent {
 
     public ActivateStrategyEvent(String strategyName, Instrument instrument, PositionTypeEnum positionType) {
         name = EventTypesEnum.ACTIVATE_STRATEGY.name();
+        type = EventTypesEnum.ACTIVATE_STRATEGY;
         this.strategyName = strategyName;
         this.instrument = instrument;
         this.id = UUID.randomUUID();
         this.positionType = positionType;
+        symbol = instrument.symbol;
     }
 }
@@ -17,10 +17,16 @@
 
 package relativity.events.types;
 
+import relativity.events.EventTypesEnum;
+
 import java.util.UUID;
 
 public class BaseEvent {
     public String name;
+    public EventTypesEnum type;
+
+    // Used to route the event to the shard that owns the symbol
+    public String symbol;
     public UUID id;
     public long timestamp;
 }
@@ -29,8 +29,10 @@ public class InstrumentAnalysisEvent extends BaseEvent {
 
     public InstrumentAnalysisEvent(Instrument instrument, PriceMovement lastTradeAggregate) {
         name = EventTypesEnum.INSTRUMENT_ANALYSIS.name();
+        type = EventTypesEnum.INSTRUMENT_ANALYSIS;
         this.instrument = instrument;
         this.lastTradeAggregate = lastTradeAggregate;
         this.id = UUID.randomUUID();
+        symbol = instrument.symbol;
     }
 }
@@ -29,8 +29,10 @@ public class InstrumentMinuteAnalysisEvent extends BaseEvent {
 
     public InstrumentMinuteAnalysisEvent(Instrument instrument, PriceMovement lastTradeAggregate) {
         name = EventTypesEnum.INSTRUMENT_MINUTE_ANALYSIS.name();
+        type = EventTypesEnum.INSTRUMENT_MINUTE_ANALYSIS;
         id = UUID.randomUUID();
         this.instrument = instrument;
         this.lastTradeAggregate = lastTradeAggregate;
+        symbol = instrument.symbol;
     }
 }
@@ -27,7 +27,9 @@ public class InstrumentPriceChangeEvent extends BaseEvent {
 
     public InstrumentPriceChangeEvent(PriceMovement priceMovement) {
         name = EventTypesEnum.INSTRUMENT_PRICE_CHANGE.name();
+        type = EventTypesEnum.INSTRUMENT_PRICE_CHANGE;
         this.priceMovement = priceMovement;
         this.id = UUID.randomUUID();
+        symbol = priceMovement.symbol;
     }
 }
@@ -25,6 +25,8 @@ public class OrderCreatedEvent extends BaseEvent {
 
     public OrderCreatedEvent(Order order) {
         name = EventTypesEnum.ORDER_CREATED.name();
+        type = EventTypesEnum.ORDER_CREATED;
         this.order = order;
+        symbol = order.symbol;
     }
 }
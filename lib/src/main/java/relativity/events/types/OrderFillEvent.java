@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.events.types;
+
+import relativity.brokers.types.Order;
+import relativity.brokers.types.OrderFill;
+import relativity.events.EventTypesEnum;
+
+import java.util.UUID;
+
+/**
+ * A partial fill, the order is still working. The fill that completes
+ * an order is published as an OrderFilledEvent.
+ */
+public class OrderFillEvent extends BaseEvent {
+    public Order order;
+    public OrderFill fill;
+
+    public OrderFillEvent(Order order, OrderFill fill) {
+        name = EventTypesEnum.ORDER_FILL.name();
+        type = EventTypesEnum.ORDER_FILL;
+        id = UUID.randomUUID();
+        this.order = order;
+        this.fill = fill;
+        symbol = order.symbol;
+    }
+}
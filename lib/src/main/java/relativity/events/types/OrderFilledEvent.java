@@ -27,8 +27,10 @@ public class OrderFilledEvent extends BaseEvent {
 
     public OrderFilledEvent(Order order) {
         name = EventTypesEnum.ORDER_FILLED.name();
+        type = EventTypesEnum.ORDER_FILLED;
         id = UUID.randomUUID();
         this.order = order;
+        symbol = order.symbol;
     }
 
 }
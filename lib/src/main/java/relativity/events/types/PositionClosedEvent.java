@@ -26,8 +26,10 @@ public class PositionClosedEvent extends BaseEvent {
     public Position position;
 
     public PositionClosedEvent(Position position) {
-        name = EventTypesEnum.ACTIVATE_STRATEGY.name();
+        name = EventTypesEnum.POSITION_CLOSED.name();
+        type = EventTypesEnum.POSITION_CLOSED;
         this.id = UUID.randomUUID();
         this.position = position;
+        symbol = position.symbol;
     }
 }
@@ -27,7 +27,9 @@ public class PositionOpenedEvent extends BaseEvent {
 
     public PositionOpenedEvent(Position position) {
         name = EventTypesEnum.POSITION_OPENED.name();
+        type = EventTypesEnum.POSITION_OPENED;
         this.id = UUID.randomUUID();
         this.position = position;
+        symbol = position.symbol;
     }
 }
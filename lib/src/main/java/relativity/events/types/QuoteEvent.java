@@ -28,6 +28,7 @@ public class QuoteEvent extends BaseEvent {
 
     public QuoteEvent(ArrayList<PolygonQuote> quotes) {
         name = EventTypesEnum.QUOTE.name();
+        type = EventTypesEnum.QUOTE;
         id = UUID.randomUUID();
         this.quotes = quotes;
     }
@@ -28,6 +28,7 @@ public class TradeEvent extends BaseEvent {
 
     public TradeEvent(ArrayList<PolygonTrade> trades) {
         name = EventTypesEnum.TRADE.name();
+        type = EventTypesEnum.TRADE;
         id = UUID.randomUUID();
         this.trades = trades;
     }
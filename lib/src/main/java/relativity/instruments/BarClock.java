@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments;
+
+import relativity.workers.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Single clock that closes second bars for every symbol.
+ * Time is driven by the exchange timestamps on the ticks: bars are closed
+ * once the latest event time seen is past the end of their second plus the
+ * grace period. If no ticks arrive for the idle period the watermark keeps
+ * moving with the wall time elapsed since the last tick so the last bars still
+ * close. It stays relative to the event time so a feed that trails the wall
+ * clock (delayed plans, replays, skew) doesn't close bars early once it resumes.
+ * Only processors that opened a bar since the last pass are visited.
+ */
+public class BarClock {
+    // How long a bar stays open after its second ends
+    public static final long GRACE_MILLIS = 200;
+    // Wall clock fallback when no ticks arrive
+    public static final long IDLE_CLOSE_MILLIS = 1_500;
+    public static final long TICK_MILLIS = 100;
+
+    private final LongAccumulator latestEventTime = new LongAccumulator(Long::max, 0);
+    private final ConcurrentLinkedQueue<EquityQuoteAndTradeProcessor> dirty = new ConcurrentLinkedQueue<>();
+    private final ArrayList<EquityQuoteAndTradeProcessor> closing = new ArrayList<>();
+
+    // Wall time of the latest observed tick, racing writers all write about the same time
+    private volatile long lastObservedWallTime = 0;
+    private volatile long watermark = 0;
+    private boolean started = false;
+
+    public synchronized void start(ThreadPool pool) {
+        if (started) {
+            return;
+        }
+
+        started = true;
+
+        pool.scheduleAtFixedRate(() -> {
+            try {
+                tick(System.currentTimeMillis());
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+        }, (int) TICK_MILLIS, (int) TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public void observe(long eventTimeMillis) {
+        latestEventTime.accumulate(eventTimeMillis);
+        lastObservedWallTime = System.currentTimeMillis();
+    }
+
+    public void markDirty(EquityQuoteAndTradeProcessor processor) {
+        dirty.add(processor);
+    }
+
+    /**
+     * Everything before this time is closed
+     */
+    public long getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * Advances the watermark and closes bars on every dirty processor.
+     * Processors that still have open bars are kept for the next pass.
+     */
+    public synchronized void tick(long nowMillis) {
+        long eventTime = latestEventTime.get();
+        long next = eventTime - GRACE_MILLIS;
+        long idleMillis = nowMillis - lastObservedWallTime;
+
+        // Nothing to close before the first tick
+        if (lastObservedWallTime > 0 && idleMillis > IDLE_CLOSE_MILLIS) {
+            next = Math.max(next, eventTime + idleMillis - IDLE_CLOSE_MILLIS);
+        }
+
+        watermark = Math.max(watermark, next);
+
+        EquityQuoteAndTradeProcessor processor;
+
+        while ((processor = dirty.poll()) != null) {
+            closing.add(processor);
+        }
+
+        for (int i = 0; i < closing.size(); i++) {
+            processor = closing.get(i);
+
+            try {
+                if (processor.closeBars(watermark)) {
+                    dirty.add(processor);
+                }
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+        }
+
+        closing.clear();
+    }
+}
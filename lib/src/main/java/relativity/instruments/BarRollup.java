@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments;
+
+import relativity.instruments.types.TimeframeEnum;
+
+import java.util.EnumSet;
+
+/**
+ * Rolls one symbol's closed second bars up into the higher timeframes.
+ * Each timeframe keeps one open bar that is extended by every second bar in
+ * its bucket (epoch second / timeframe seconds), so raw ticks are never
+ * re-aggregated. A bucket closes as soon as its last second has been added,
+ * or when the first second bar of a later bucket arrives for seconds that
+ * did not trade. Closed bars are handed to the listener, which owns them.
+ *
+ * Not thread safe, only called from the shard that owns the symbol.
+ */
+public class BarRollup {
+    public interface Listener {
+        void onBarClosed(TimeframeEnum timeframe, PriceMovement bar);
+    }
+
+    private final String symbol;
+    private final TimeframeEnum[] timeframes;
+    private final PriceMovement[] openBars;
+    private final long[] openBuckets;
+
+    public BarRollup(String symbol) {
+        this(symbol, EnumSet.allOf(TimeframeEnum.class));
+    }
+
+    public BarRollup(String symbol, EnumSet<TimeframeEnum> timeframes) {
+        this.symbol = symbol;
+        this.timeframes = timeframes.toArray(new TimeframeEnum[0]);
+        this.openBars = new PriceMovement[this.timeframes.length];
+        this.openBuckets = new long[this.timeframes.length];
+    }
+
+    /**
+     * @param second Epoch second the bar covers
+     * @param bar Closed one second bar, only read
+     */
+    public void add(long second, PriceMovement bar, Listener listener) {
+        for (int i = 0; i < timeframes.length; i++) {
+            TimeframeEnum timeframe = timeframes[i];
+            long bucket = second / timeframe.seconds;
+            PriceMovement open = openBars[i];
+
+            if (open != null && openBuckets[i] != bucket) {
+                close(i, listener);
+                open = null;
+            }
+
+            if (open == null) {
+                open = new PriceMovement();
+                open.symbol = symbol;
+                open.time = bucket * timeframe.seconds * 1000;
+                open.endTime = open.time + timeframe.seconds * 1000L;
+                open.open = bar.open;
+                open.high = bar.high;
+                open.low = bar.low;
+                open.volume = 0;
+                open.hasBeenReset = false;
+
+                openBars[i] = open;
+                openBuckets[i] = bucket;
+            }
+
+            open.high = Math.max(open.high, bar.high);
+            open.low = Math.min(open.low, bar.low);
+            open.close = bar.close;
+            open.volume += bar.volume;
+            open.endTimeNano = bar.endTimeNano;
+
+            if ((second + 1) % timeframe.seconds == 0) {
+                close(i, listener);
+            }
+        }
+    }
+
+    private void close(int index, Listener listener) {
+        TimeframeEnum timeframe = timeframes[index];
+        PriceMovement bar = openBars[index];
+        openBars[index] = null;
+
+        bar.change = bar.close - bar.open;
+        bar.percentChange = bar.open != 0 ? bar.change / bar.open : 0;
+
+        listener.onBarClosed(timeframe, bar);
+    }
+
+}
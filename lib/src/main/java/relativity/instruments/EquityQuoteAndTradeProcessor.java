@@ -19,183 +19,309 @@ package relativity.instruments;
 
 import relativity.events.EventService;
 import relativity.events.types.InstrumentAnalysisEvent;
+import relativity.events.types.InstrumentMinuteAnalysisEvent;
 import relativity.events.types.InstrumentPriceChangeEvent;
 import relativity.instruments.data.polygon.types.PolygonQuote;
 import relativity.instruments.types.Instrument;
 import relativity.instruments.data.polygon.types.PolygonTrade;
+import relativity.instruments.types.TimeframeEnum;
 import relativity.workers.ThreadPool;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Date;
-import java.util.concurrent.*;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
 import org.tinylog.Logger;
 
+/**
+ * Aggregates trades and quotes for a single symbol into one second bars.
+ * Ticks are bucketed by their exchange timestamp (epoch second), and a
+ * small ring of bars stays open so ticks arriving a little late still land
+ * in the bar for their own second. Bars are closed by the shared BarClock
+ * once its watermark passes the end of their second; ticks arriving after
+ * that are late and only contribute their volume to the earliest bar still open.
+ * Closed second bars are rolled up into the higher timeframes on the symbol's shard.
+ */
 public class EquityQuoteAndTradeProcessor {
+    private static final int OPEN_BARS = 4;
+
     private final String symbol;
+    private final int symbolId;
     private final InstrumentManager instrumentManager;
     private final EventService eventService;
-    private PriceMovement tradeAggregate = new PriceMovement();
-    private PriceMovement lastTradeAggregate = new PriceMovement();
-    private PriceMovement previousTradeAggregate = new PriceMovement();
+    private final BarClock barClock;
+
+    // Bar for epoch second s lives at s % OPEN_BARS. A closed bar is handed to the
+    // emission as is and only reset when the slot is reopened OPEN_BARS seconds later
+    private final SecondBar[] bars = new SecondBar[OPEN_BARS];
+
+    // Last closed quote, carried into bars that traded without a new quote
+    private final QuotePriceMovement lastQuoteAggregate = new QuotePriceMovement();
+    private boolean hasQuote = false;
 
-    private QuotePriceMovement quoteAggregate = new QuotePriceMovement();
-    private QuotePriceMovement lastQuoteAggregate = new QuotePriceMovement();
-    private QuotePriceMovement previousQuoteAggregate = new QuotePriceMovement();
+    // Only touched from the symbol's shard
+    private final BarRollup rollup;
+    private final BarRollup.Listener rollupListener = this::onRollupBarClosed;
 
     private ThreadPool pool;
     private InstrumentStatisticsService instrumentStatisticsService;
 
-    private long currentAggregatedSecond;
-    private long currentAggregatedMillisecond;
-    final Object tradeLock = new Object();
-    final Object quoteLock = new Object();
+    // Only symbols with an active strategy pay for the full quote path,
+    // everything else keeps the last bid/ask and summed sizes per second
+    private volatile boolean fullFidelityQuotes = false;
+
+    // Queued on the bar clock, only changed under the bar lock
+    private boolean dirty = false;
+
+    private long lastClosedSecond = 0;
+    private long lateTrades = 0;
+    private long lateQuotes = 0;
+    final Object barLock = new Object();
 
     public EquityQuoteAndTradeProcessor(
         String symbol,
+        int symbolId,
         InstrumentManager instrumentManager,
         ThreadPool pool,
         EventService eventService,
-        InstrumentStatisticsService instrumentStatisticsService
+        InstrumentStatisticsService instrumentStatisticsService,
+        BarClock barClock
     ) {
         this.symbol = symbol;
+        this.symbolId = symbolId;
         this.instrumentManager = instrumentManager;
         this.eventService = eventService;
         this.pool = pool;
         this.instrumentStatisticsService = instrumentStatisticsService;
+        this.barClock = barClock;
 
-        tradeAggregate.symbol = symbol;
-        lastTradeAggregate.symbol = symbol;
+        for (int i = 0; i < OPEN_BARS; i++) {
+            bars[i] = new SecondBar(symbol);
+        }
 
-        quoteAggregate.symbol = symbol;
         lastQuoteAggregate.symbol = symbol;
-
-        currentAggregatedMillisecond = System.currentTimeMillis();
-        currentAggregatedSecond = (long) Math.floor(currentAggregatedMillisecond / 1000);
-
-        // TODO: Determine if every equity doing calculations precisely at every second works
-        int wait = (int) (1000 - (currentAggregatedMillisecond - (currentAggregatedSecond * 1000)));
-
-        this.pool.scheduleAtFixedRate(() -> {
-            if (!(tradeAggregate.hasBeenReset)/* && tradesReceived*/) {
-                try {
-                    updateCalculationWithExistingAggregate();
-                } catch (ExecutionException e) {
-                    throw new RuntimeException(e);
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        }, wait, 1000, TimeUnit.MILLISECONDS);
+        rollup = new BarRollup(symbol);
     }
 
     public void aggregateTrade(PolygonTrade trade) {
-        if (!trade.sym.equalsIgnoreCase(symbol)) {
+        if (trade.symbolId != symbolId) {
             Logger.warn("Trade for " + trade.sym + " is in the wrong processor " + symbol);
 
             return;
         }
 
-        synchronized (tradeLock){
-            if (tradeAggregate.hasBeenReset) {
-                initializeTradeAggregate(trade);
+        barClock.observe(trade.t);
+
+        synchronized (barLock) {
+            SecondBar bar = getOpenBar(trade.t / 1000);
+
+            if (bar == null) {
+                // Too late for its own bar, only count the volume
+                lateTrades++;
+
+                SecondBar earliest = getEarliestOpenBar();
+
+                if (earliest != null && !earliest.trade.hasBeenReset) {
+                    earliest.trade.volume += trade.s;
+                }
+
+                return;
+            }
+
+            if (bar.trade.hasBeenReset) {
+                initializeTradeAggregate(trade, bar.trade);
 
                 return;
             }
 
-//            long tradeTimeInSeconds = trade.t / 1000;
-//
-//            if (currentAggregatedSecond != tradeTimeInSeconds) {
-//                // Attempt to update previous bars
-//                Security security = securityManager.getSecurity(lastTradeAggregate.symbol);
-//
-//                long diff = currentAggregatedSecond - tradeTimeInSeconds;
-//                long index = security.pricing.tradeSeries.getBarCount() - diff;
-//
-////                Logger.info("Index: " + index + " Diff: " + diff + " Time: " + trade.t + " Current: " + currentAggregatedSecond + " Trade: " + tradeTimeInSeconds + " Symbol: " + trade.sym);
-//
-////                Bar bar = security.pricing.tradeSeries.getBar((int) index);
-////                bar.addTrade(DecimalNum.valueOf(trade.p), DecimalNum.valueOf(trade.p));
-//
-//                return;
-//            }
-
-            // For now, we are adding all trades to the aggregate
-            // even if not in the same second. This will still average
-            // out the data we need
-
-            addTradeToAggregate(trade, tradeAggregate, false);
+            addTradeToAggregate(trade, bar.trade);
         }
     }
 
     public void aggregateQuote(PolygonQuote quote) {
-        if (!quote.sym.equalsIgnoreCase(symbol)) {
+        if (quote.symbolId != symbolId) {
             Logger.warn("Received quote for wrong symbol: " + quote.sym + " instead of " + symbol);
 
             return;
         }
 
-        synchronized(quoteLock) {
-            if (quoteAggregate.hasBeenReset) {
-                initializeQuoteAggregate(quote);
+        barClock.observe(quote.t);
+
+        synchronized (barLock) {
+            SecondBar bar = getOpenBar(quote.t / 1000);
+
+            if (bar == null) {
+                lateQuotes++;
+
+                SecondBar earliest = getEarliestOpenBar();
+
+                if (earliest != null && !earliest.quote.hasBeenReset) {
+                    earliest.quote.bidVolume += quote.bs;
+                    earliest.quote.askVolume += quote.as;
+                }
+
+                return;
             }
 
-            addQuoteToAggregate(quote, quoteAggregate);
+            if (bar.quote.hasBeenReset) {
+                initializeQuoteAggregate(quote, bar.quote);
+            }
+
+            if (fullFidelityQuotes) {
+                addQuoteToAggregate(quote, bar.quote);
+            } else {
+                conflateQuoteIntoAggregate(quote, bar.quote);
+            }
+        }
+    }
+
+    public void setFullFidelityQuotes(boolean fullFidelityQuotes) {
+        this.fullFidelityQuotes = fullFidelityQuotes;
+    }
+
+    public boolean isFullFidelityQuotes() {
+        return fullFidelityQuotes;
+    }
+
+    /**
+     * Trades and quotes that arrived after their bar was closed
+     */
+    public long getLateTicks() {
+        synchronized (barLock) {
+            return lateTrades + lateQuotes;
         }
     }
 
-    private void updateCalculationWithExistingAggregate() throws ExecutionException, InterruptedException {
-        // Immediately reset the current trade aggregate and close off data
-        // Might use a lock here
-        synchronized (tradeLock) {
-            long currentTime = System.nanoTime();
-            lastTradeAggregate.high = tradeAggregate.high;
-            lastTradeAggregate.low = tradeAggregate.low;
-            lastTradeAggregate.open = tradeAggregate.open;
-            lastTradeAggregate.close = tradeAggregate.close;
-            lastTradeAggregate.volume = tradeAggregate.volume;
-            lastTradeAggregate.prices = tradeAggregate.prices;
-            lastTradeAggregate.time = tradeAggregate.time;
-            lastTradeAggregate.endTime = System.currentTimeMillis();
-            lastTradeAggregate.endTimeNano = System.nanoTime();
-            lastTradeAggregate.hasBeenReset = false;
-
-            long endTime = System.nanoTime();
-            long lengthOfTime = endTime - currentTime;
-
-            if (lengthOfTime > 500) {
-//                Logger.info("Update Values " + lengthOfTime + " ns");
+    /**
+     * Closes, oldest first, every open bar whose second ended at or before the watermark
+     *
+     * @return true while bars are still open
+     */
+    public boolean closeBars(long watermarkMillis) {
+        long watermarkSecond = watermarkMillis / 1000;
+
+        synchronized (barLock) {
+            SecondBar bar;
+
+            while ((bar = getEarliestOpenBar()) != null && bar.second < watermarkSecond) {
+                closeBar(bar);
             }
 
-            // Reset this as quickly as possible
-            tradeAggregate.reset();
+            dirty = bar != null;
+
+            return dirty;
         }
+    }
 
-        synchronized (quoteLock) {
-            lastQuoteAggregate.bidHigh = quoteAggregate.bidHigh;
-            lastQuoteAggregate.bidLow = quoteAggregate.bidLow;
-            lastQuoteAggregate.bidOpen = quoteAggregate.bidOpen;
-            lastQuoteAggregate.bidClose = quoteAggregate.bidClose;
-            lastQuoteAggregate.bidVolume = quoteAggregate.bidVolume;
-            lastQuoteAggregate.askHigh = quoteAggregate.askHigh;
-            lastQuoteAggregate.askLow = quoteAggregate.askLow;
-            lastQuoteAggregate.askOpen = quoteAggregate.askOpen;
-            lastQuoteAggregate.askClose = quoteAggregate.askClose;
-            lastQuoteAggregate.askVolume = quoteAggregate.askVolume;
-            lastQuoteAggregate.time = quoteAggregate.time;
-            lastQuoteAggregate.endTime = System.currentTimeMillis();
-            lastQuoteAggregate.endTimeNano = System.nanoTime();
-
-            quoteAggregate.reset();
+    /**
+     * Bar for the epoch second, opened if needed,
+     * or null when that second has already been closed
+     */
+    private SecondBar getOpenBar(long second) {
+        if (second <= lastClosedSecond) {
+            return null;
         }
 
-        pool.runAsync(() -> {
+        SecondBar bar = bars[(int) (second % OPEN_BARS)];
+
+        if (bar.open) {
+            if (bar.second == second) {
+                return bar;
+            }
+
+            if (bar.second > second) {
+                return null;
+            }
+
+            // Still holding a second that is OPEN_BARS behind, close it and anything older first
+            SecondBar earliest;
+
+            while ((earliest = getEarliestOpenBar()) != null && earliest.second <= bar.second) {
+                closeBar(earliest);
+            }
+        }
+
+        bar.reset(second);
+
+        if (!dirty) {
+            dirty = true;
+            barClock.markDirty(this);
+        }
+
+        return bar;
+    }
+
+    private SecondBar getEarliestOpenBar() {
+        SecondBar earliest = null;
+
+        for (SecondBar bar : bars) {
+            if (bar.open && (earliest == null || bar.second < earliest.second)) {
+                earliest = bar;
+            }
+        }
+
+        return earliest;
+    }
+
+    private void closeBar(SecondBar bar) {
+        bar.open = false;
+        lastClosedSecond = Math.max(lastClosedSecond, bar.second);
+
+        PriceMovement trade = bar.trade;
+        QuotePriceMovement quote = bar.quote;
+
+        if (!quote.hasBeenReset) {
+            if (!fullFidelityQuotes) {
+                // Conflated bars only track the open and the last quote
+                quote.bidHigh = Math.max(quote.bidOpen, quote.bidClose);
+                quote.bidLow = Math.min(quote.bidOpen, quote.bidClose);
+                quote.askHigh = Math.max(quote.askOpen, quote.askClose);
+                quote.askLow = Math.min(quote.askOpen, quote.askClose);
+            }
+
+            quote.spread = quote.askClose - quote.bidClose;
+            quote.midPrice = (quote.askClose + quote.bidClose) / 2;
+
+            copyQuotePrices(quote, lastQuoteAggregate);
+            hasQuote = true;
+        } else if (hasQuote) {
+            // No quotes this second, the book is unchanged from the last one
+            copyQuotePrices(lastQuoteAggregate, quote);
+            quote.bidHigh = quote.bidLow = quote.bidOpen = quote.bidClose;
+            quote.askHigh = quote.askLow = quote.askOpen = quote.askClose;
+            quote.bidVolume = 0;
+            quote.askVolume = 0;
+        }
+
+        // Only seconds that traded are emitted
+        if (trade.hasBeenReset) {
+            return;
+        }
+
+        trade.endTime = (bar.second + 1) * 1000;
+        trade.endTimeNano = System.nanoTime();
+        quote.time = trade.time;
+        quote.endTime = trade.endTime;
+        quote.endTimeNano = trade.endTimeNano;
+
+        long second = bar.second;
+        // The shard can fall behind by more than OPEN_BARS seconds, after which the
+        // feed resets and refills this slot, so everything downstream gets a copy
+        PriceMovement closedTrade = copyBar(trade);
+        QuotePriceMovement closedQuote = copyQuote(quote);
+
+        // Several bars can close in one pass, the symbol's shard keeps them in order
+        pool.runForSymbol(symbol, () -> {
             try {
-                eventService.processEvent(new InstrumentPriceChangeEvent(lastTradeAggregate));
-                Instrument instrument = instrumentManager.getInstrument(lastTradeAggregate.symbol);
-                instrumentStatisticsService.addLatestPriceToInstrument(instrument, lastTradeAggregate, lastQuoteAggregate);
+                eventService.processEvent(new InstrumentPriceChangeEvent(closedTrade));
+                Instrument instrument = instrumentManager.getInstrument(symbolId);
+                instrumentStatisticsService.addLatestPriceToInstrument(instrument, closedTrade, closedQuote);
+                instrumentManager.stateStore.update(instrument);
 
-                eventService.processEvent(new InstrumentAnalysisEvent(instrument, lastTradeAggregate));
+                eventService.processEvent(new InstrumentAnalysisEvent(instrument, closedTrade));
+
+                rollup.add(second, closedTrade, rollupListener);
             } catch (ExecutionException e) {
                 throw new RuntimeException(e);
             } catch (InterruptedException e) {
@@ -204,65 +330,85 @@ public class EquityQuoteAndTradeProcessor {
         });
     }
 
-    private void initializeTradeAggregate(PolygonTrade trade) {
-        tradeAggregate.high = trade.p;
-        tradeAggregate.low = trade.p;
-        tradeAggregate.open = trade.p;
-        tradeAggregate.close = trade.p;
-        tradeAggregate.volume = trade.s;
-        tradeAggregate.time = System.currentTimeMillis();
-        tradeAggregate.hasBeenReset = false;
-        tradeAggregate.prices.add(trade.p);
-
-        currentAggregatedMillisecond = tradeAggregate.time + 50;
-        currentAggregatedSecond = currentAggregatedMillisecond / 1000;
+    private void onRollupBarClosed(TimeframeEnum timeframe, PriceMovement bar) {
+        Instrument instrument = instrumentManager.getInstrument(symbolId);
+
+        instrumentStatisticsService.addLatestTimeframePriceToInstrument(instrument, timeframe, bar);
+
+        if (timeframe == TimeframeEnum.MINUTE) {
+            eventService.processEvent(new InstrumentMinuteAnalysisEvent(instrument, bar));
+        }
     }
 
-    private void initializeQuoteAggregate(PolygonQuote quote) {
-        quoteAggregate.hasBeenReset = false;
-
-        quoteAggregate.symbol = quote.sym;
-        quoteAggregate.bidOpen = quote.bp;
-        quoteAggregate.askOpen = quote.ap;
-        quoteAggregate.bidHigh = quote.bp;
-        quoteAggregate.askHigh = quote.ap;
-        quoteAggregate.bidLow = quote.bp;
-        quoteAggregate.askLow = quote.ap;
-        quoteAggregate.bidClose = quote.bp;
-        quoteAggregate.askClose = quote.ap;
-        quoteAggregate.bidVolume = quote.bs;
-        quoteAggregate.askVolume = quote.as;
-
-        quoteAggregate.time = System.currentTimeMillis();
-
-        currentAggregatedMillisecond = quoteAggregate.time + 50;
-        currentAggregatedSecond = currentAggregatedMillisecond / 1000;
+    private static PriceMovement copyBar(PriceMovement bar) {
+        try {
+            PriceMovement copy = bar.clone();
+            copy.prices = new ArrayList<>(bar.prices);
+            copy.trades = new ConcurrentHashMap<>(bar.trades);
+
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
     }
 
-    private void addTradeToAggregate(@NotNull PolygonTrade trade, @NotNull PriceMovement aggregate, boolean minute) {
-        long startTime = System.nanoTime();
-        int tradeSeconds = new Date(trade.t).getSeconds();
-        int aggregateSeconds = new Date(currentAggregatedMillisecond).getSeconds();
+    private static QuotePriceMovement copyQuote(QuotePriceMovement quote) {
+        try {
+            QuotePriceMovement copy = (QuotePriceMovement) quote.clone();
+            copy.prices = new ArrayList<>(quote.prices);
+            copy.trades = new ConcurrentHashMap<>(quote.trades);
+            copy.quotes = new ConcurrentHashMap<>(quote.quotes);
+            // The ladders are only built while aggregating, they stay with the slot
+            copy.bidLadder = null;
+            copy.askLadder = null;
+
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-        // TODO: check if price is outlandishily different from the previous prices
-        if (
-            tradeSeconds != aggregateSeconds &&
-            tradeSeconds - aggregateSeconds < 0 &&
-            tradeSeconds != 0 &&
-            aggregateSeconds != 59
-        ) {
-            if (aggregateSeconds - tradeSeconds > 1) {
-                Logger.warn("Trade time does not match aggregate time. Trade: " + tradeSeconds + " Aggregate: " + aggregateSeconds);
-            }
+    private static void copyQuotePrices(QuotePriceMovement from, QuotePriceMovement to) {
+        to.bidHigh = from.bidHigh;
+        to.bidLow = from.bidLow;
+        to.bidOpen = from.bidOpen;
+        to.bidClose = from.bidClose;
+        to.askHigh = from.askHigh;
+        to.askLow = from.askLow;
+        to.askOpen = from.askOpen;
+        to.askClose = from.askClose;
+        to.spread = from.spread;
+        to.midPrice = from.midPrice;
+    }
 
-            // TODO: figure out how to update a previous bar
+    private void initializeTradeAggregate(PolygonTrade trade, PriceMovement aggregate) {
+        aggregate.high = trade.p;
+        aggregate.low = trade.p;
+        aggregate.open = trade.p;
+        aggregate.close = trade.p;
+        aggregate.volume = trade.s;
+        aggregate.hasBeenReset = false;
+    }
 
-            // Only add to volume
-            aggregate.volume += trade.s;
+    private void initializeQuoteAggregate(PolygonQuote quote, QuotePriceMovement aggregate) {
+        aggregate.hasBeenReset = false;
 
-            return;
-        }
+        aggregate.bidOpen = quote.bp;
+        aggregate.askOpen = quote.ap;
+        aggregate.bidHigh = quote.bp;
+        aggregate.askHigh = quote.ap;
+        aggregate.bidLow = quote.bp;
+        aggregate.askLow = quote.ap;
+        aggregate.bidClose = quote.bp;
+        aggregate.askClose = quote.ap;
+
+        // Sizes are added by the aggregate call that follows
+        aggregate.bidVolume = 0;
+        aggregate.askVolume = 0;
+    }
 
+    private void addTradeToAggregate(@NotNull PolygonTrade trade, @NotNull PriceMovement aggregate) {
+        // TODO: check if price is outlandishily different from the previous prices
         aggregate.close = trade.p;
 
         if (aggregate.high < trade.p) {
@@ -274,50 +420,17 @@ public class EquityQuoteAndTradeProcessor {
         }
 
         aggregate.volume += trade.s;
-//        aggregate.prices.add(trade.p);
 //        aggregate.trades.put(trade.i, trade);
+    }
 
-        long endTime = System.nanoTime();
-//        Logger.info("AddTradeCalc " + ((endTime - startTime)) + " ns");
-
-        /**** Extra processing ******/
-//            aggregate.prices.add(trade.p);
-//            aggregate.prices[aggregate.prices.length] = trade.p;
-//
-//            if (!aggregate.priceLadder.containsKey(trade.p())) {
-//                aggregate.priceLadder.put(trade.p(), trade.s());
-//
-//                return;
-//            }
-//
-//            Integer priceVolume = aggregate.priceLadder.get(trade.p());
-//            aggregate.priceLadder.put(trade.p(), priceVolume + trade.s());
+    private void conflateQuoteIntoAggregate(@NotNull PolygonQuote quote, @NotNull QuotePriceMovement aggregate) {
+        aggregate.bidClose = quote.bp;
+        aggregate.askClose = quote.ap;
+        aggregate.bidVolume += quote.bs;
+        aggregate.askVolume += quote.as;
     }
 
     public void addQuoteToAggregate(@NotNull PolygonQuote quote, @NotNull QuotePriceMovement aggregate) {
-        long startTime = System.nanoTime();
-        int quoteSeconds = new Date(quote.t).getSeconds();
-        int aggregateSeconds = new Date(currentAggregatedMillisecond).getSeconds();
-
-        if (
-            quoteSeconds != aggregateSeconds &&
-            quoteSeconds - aggregateSeconds < 0 &&
-            quoteSeconds != 0 &&
-            aggregateSeconds != 59
-        ) {
-//            if (aggregateSeconds - quoteSeconds > 1) {
-//                Logger.warn("Quote time does not match aggregate time. Quote: " + quoteSeconds + " Aggregate: " + aggregateSeconds);
-//            }
-
-            // TODO: figure out how to update a previous bar
-
-            // Only add to volume
-            aggregate.askVolume += quote.as;
-            aggregate.bidVolume += quote.bs;
-
-            return;
-        }
-
         aggregate.askClose = quote.ap;
         aggregate.bidClose = quote.bp;
 
@@ -341,17 +454,34 @@ public class EquityQuoteAndTradeProcessor {
         aggregate.bidVolume += quote.bs;
 
         // Populate the price ladders for Order book
-        if (aggregate.bidPrices.containsKey(quote.bp)) {
-            aggregate.bidPrices.put(String.valueOf(quote.bp), aggregate.bidPrices.get(quote.bp) + quote.bs);
-        } else {
-            aggregate.bidPrices.put(String.valueOf(quote.bp), quote.bs);
+        aggregate.bidLadder.add(quote.bp, quote.bs);
+        aggregate.askLadder.add(quote.ap, quote.as);
+    }
+
+    private static class SecondBar {
+        long second;
+        boolean open = false;
+        final PriceMovement trade = new PriceMovement();
+        final QuotePriceMovement quote = new QuotePriceMovement();
+
+        SecondBar(String symbol) {
+            trade.symbol = symbol;
+            quote.symbol = symbol;
         }
 
-        if (aggregate.askPrices.containsKey(quote.ap)) {
-            aggregate.askPrices.put(String.valueOf(quote.ap), aggregate.askPrices.get(quote.ap) + quote.as);
-        } else {
-            aggregate.askPrices.put(String.valueOf(quote.ap), quote.as);
+        void reset(long second) {
+            this.second = second;
+            open = true;
+
+            String symbol = trade.symbol;
+
+            trade.reset();
+            quote.reset();
+
+            trade.symbol = symbol;
+            quote.symbol = symbol;
+            trade.time = second * 1000;
+            quote.time = second * 1000;
         }
     }
 }
-
@@ -24,7 +24,11 @@ import java.util.concurrent.ConcurrentHashMap;
 
 public class InstrumentManager {
     final ConcurrentHashMap<String, Instrument> instruments = new ConcurrentHashMap<>();
+    private final SymbolIndexedArray<Instrument> instrumentsById = new SymbolIndexedArray<>(10_000);
     private final ArrayList<Instrument> availableInstruments = new ArrayList<>(10_000);
+    public final SymbolTable symbolTable = new SymbolTable();
+    public final InstrumentStateStore stateStore = new InstrumentStateStore();
+    public final StatisticsDemand statisticsDemand = new StatisticsDemand();
 
     public void initializeInstrumentObjects() {
         for (int i = 0; i < 10_000; i++) {
@@ -33,19 +37,32 @@ public class InstrumentManager {
     }
 
     public Instrument getInstrument(String symbol) {
-        return instruments.computeIfAbsent(symbol, this::addInstrument);
+        return getInstrument(symbolTable.getId(symbol));
+    }
+
+    public Instrument getInstrument(int symbolId) {
+        Instrument instrument = instrumentsById.get(symbolId);
+
+        if (instrument != null) {
+            return instrument;
+        }
+
+        return instrumentsById.computeIfAbsent(symbolId, this::addInstrument);
     }
 
     public int getSecuritiesSize() {
         return instruments.size();
     }
 
-    private synchronized Instrument addInstrument(String symbol) {
+    private synchronized Instrument addInstrument(int symbolId) {
         Instrument instrument = !availableInstruments.isEmpty()
                 ? availableInstruments.removeLast()
                 : new Instrument();
 
-        instrument.symbol = symbol;
+        instrument.symbol = symbolTable.getSymbol(symbolId);
+        instrument.id = symbolId;
+        stateStore.register(instrument.id);
+        instruments.put(instrument.symbol, instrument);
 
         return instrument;
     }
@@ -75,6 +92,7 @@ public class InstrumentManager {
     public void resetPricingAndStatistics(String symbol) {
         Instrument instrument = getInstrument(symbol);
         instrument.pricing.trailingPrices.clear();
+        instrument.snapshots.reset();
 //        security.statistics.reset();
     }
 
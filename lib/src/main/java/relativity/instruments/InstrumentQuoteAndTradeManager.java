@@ -33,8 +33,14 @@ public class InstrumentQuoteAndTradeManager {
     public InstrumentStatisticsService instrumentStatisticsService;
     public EventService eventService;
     public ThreadPool pool;
-    private static final ConcurrentHashMap<String, EquityQuoteAndTradeProcessor> equityQuoteAndTradeMap = new ConcurrentHashMap<>();
-    private static final ConcurrentHashMap<String, EquityQuoteAndTradeProcessor> equityQuoteAndTradeMinutesMap = new ConcurrentHashMap<>();
+    // Indexed by SymbolTable id
+    private final SymbolIndexedArray<EquityQuoteAndTradeProcessor> processors = new SymbolIndexedArray<>(10_000);
+
+    // Closes the second bars for every processor
+    public final BarClock barClock = new BarClock();
+
+    // Symbols with an active strategy, these are never shed under load
+    private final Set<String> watchedSymbols = ConcurrentHashMap.newKeySet();
 
     protected Set<Integer> nonEligibleTradeQuoteUpdateConditions = Set.of(
             InstrumentTradeConditions.NON_ELIGIBLE_TRADE.value,
@@ -99,6 +105,57 @@ public class InstrumentQuoteAndTradeManager {
 
     public InstrumentQuoteAndTradeManager() {}
 
+    public void watchSymbol(String symbol) {
+        watchedSymbols.add(symbol);
+        getProcessor(getSymbolTable().getId(symbol)).setFullFidelityQuotes(true);
+    }
+
+    public void unwatchSymbol(String symbol) {
+        watchedSymbols.remove(symbol);
+
+        EquityQuoteAndTradeProcessor processor = processors.get(getSymbolTable().findId(symbol));
+
+        if (processor != null) {
+            processor.setFullFidelityQuotes(false);
+        }
+    }
+
+    public boolean isWatched(String symbol) {
+        return watchedSymbols.contains(symbol);
+    }
+
+    /**
+     * Watched processors keep full fidelity quotes, so the flag answers without hashing the symbol
+     */
+    public boolean isWatched(int symbolId) {
+        EquityQuoteAndTradeProcessor processor = processors.get(symbolId);
+
+        return processor != null && processor.isFullFidelityQuotes();
+    }
+
+    public SymbolTable getSymbolTable() {
+        return instrumentManager.symbolTable;
+    }
+
+    /**
+     * Assigns the trade's symbol id if the decoder has not already
+     */
+    public int resolveSymbolId(PolygonTrade trade) {
+        if (trade.symbolId < 0) {
+            trade.symbolId = getSymbolTable().getId(trade.sym);
+        }
+
+        return trade.symbolId;
+    }
+
+    public int resolveSymbolId(PolygonQuote quote) {
+        if (quote.symbolId < 0) {
+            quote.symbolId = getSymbolTable().getId(quote.sym);
+        }
+
+        return quote.symbolId;
+    }
+
     public void processTradeData(List<PolygonTrade> trades) {
         for (final PolygonTrade trade : trades) {
             if (trade != null) {
@@ -118,37 +175,37 @@ public class InstrumentQuoteAndTradeManager {
     public void addTrade(final @NotNull PolygonTrade trade) {
         try {
             if (trade.c != null) {
-                for (Number condition : trade.c) {
+                for (int condition : trade.c) {
                     if (
-                        !condition.equals(2) &&
-                        !condition.equals(7) &&
-                        !condition.equals(9) &&
-                        !condition.equals(10) &&
-                        !condition.equals(12) &&
-                        !condition.equals(13) &&
-                        !condition.equals(14) &&
-                        !condition.equals(16) &&
-                        !condition.equals(17) &&
-                        !condition.equals(18) &&
-                        !condition.equals(20) &&
-                        !condition.equals(22) &&
-                        !condition.equals(29) &&
-                        !condition.equals(32) &&
-                        !condition.equals(41) &&
-                        !condition.equals(37) &&
-                        !condition.equals(52) &&
-                        !condition.equals(53) &&
-                        !condition.equals(60) &&
-                        !condition.equals(63) &&
-                        !condition.equals(64) &&
-                        !condition.equals(67) &&
-                        !condition.equals(70)
+                        condition != 2 &&
+                        condition != 7 &&
+                        condition != 9 &&
+                        condition != 10 &&
+                        condition != 12 &&
+                        condition != 13 &&
+                        condition != 14 &&
+                        condition != 16 &&
+                        condition != 17 &&
+                        condition != 18 &&
+                        condition != 20 &&
+                        condition != 22 &&
+                        condition != 29 &&
+                        condition != 32 &&
+                        condition != 41 &&
+                        condition != 37 &&
+                        condition != 52 &&
+                        condition != 53 &&
+                        condition != 60 &&
+                        condition != 63 &&
+                        condition != 64 &&
+                        condition != 67 &&
+                        condition != 70
                     ) {
                         Logger.info(trade.sym + " " + condition);
                     }
 
                     if (!eligibleTradeQuoteUpdateConditions.contains(condition)) {
-//                        if (!condition.equals(41) && !condition.equals(63)) {
+//                        if (condition != 41 && condition != 63) {
 //                            Logger.info(trade.sym + " Not adding trade for condition " + condition + " " + trade.p + " " + trade.s);
 //                        }
 
@@ -157,18 +214,7 @@ public class InstrumentQuoteAndTradeManager {
                 }
             }
 
-            equityQuoteAndTradeMap
-                .computeIfAbsent(
-                    trade.sym,
-                    symbol -> new EquityQuoteAndTradeProcessor(
-                        symbol,
-                    instrumentManager,
-                        pool,
-                        eventService,
-                    instrumentStatisticsService
-                    )
-                )
-                .aggregateTrade(trade);
+            getProcessor(resolveSymbolId(trade)).aggregateTrade(trade);
         } catch (Error e) {
             Logger.info(e.getMessage() + " " + e.getCause());
             Logger.info(trade);
@@ -176,17 +222,42 @@ public class InstrumentQuoteAndTradeManager {
     }
 
     public void addQuote(final @NotNull PolygonQuote quote) {
-        equityQuoteAndTradeMap
-        .computeIfAbsent(
-            quote.sym,
-            symbol -> new EquityQuoteAndTradeProcessor(
-                symbol,
-            instrumentManager,
-                pool,
-                eventService,
-            instrumentStatisticsService
-            )
-        )
-        .aggregateQuote(quote);
+        getProcessor(resolveSymbolId(quote)).aggregateQuote(quote);
+    }
+
+    private EquityQuoteAndTradeProcessor getProcessor(int symbolId) {
+        // Look up first so the hot path does not allocate a capturing lambda
+        EquityQuoteAndTradeProcessor processor = processors.get(symbolId);
+
+        if (processor != null) {
+            return processor;
+        }
+
+        barClock.start(pool);
+
+        // The service only computes the metrics declared through the instrument manager
+        if (instrumentStatisticsService.demand == null) {
+            instrumentStatisticsService.demand = instrumentManager.statisticsDemand;
+        }
+
+        return processors.computeIfAbsent(
+            symbolId,
+            id -> {
+                String symbol = getSymbolTable().getSymbol(id);
+                EquityQuoteAndTradeProcessor created = new EquityQuoteAndTradeProcessor(
+                    symbol,
+                    id,
+                    instrumentManager,
+                    pool,
+                    eventService,
+                    instrumentStatisticsService,
+                    barClock
+                );
+
+                created.setFullFidelityQuotes(watchedSymbols.contains(symbol));
+
+                return created;
+            }
+        );
     }
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments;
+
+import relativity.instruments.types.Instrument;
+
+import java.util.Arrays;
+
+/**
+ * Latest per symbol statistics laid out column by column, indexed by the
+ * instrument's dense id. Cross sectional scans (movers, rankings) walk a few
+ * primitive arrays front to back instead of pointer chasing through every
+ * Instrument graph, which the JIT can unroll and vectorize.
+ *
+ * Each id is written only by the shard that owns its symbol after the bar's
+ * statistics are done. The columns are written one at a time without a lock,
+ * so a reader racing an update can see some of a row's columns from the new
+ * bar and the rest from the previous one, never a value from another symbol.
+ * RSI and ATR% are NaN until the symbol has them.
+ */
+public class InstrumentStateStore {
+    public static final int DEFAULT_CAPACITY = 16_384;
+
+    private static class Columns {
+        final float[] price;
+        final long[] volume;
+        final float[] averageVolume;
+        final float[] rsi;
+        final float[] atrPercentage;
+        final float[] percentChange;
+        final long[] updatedAt;
+
+        Columns(int capacity) {
+            price = new float[capacity];
+            volume = new long[capacity];
+            averageVolume = new float[capacity];
+            rsi = new float[capacity];
+            atrPercentage = new float[capacity];
+            percentChange = new float[capacity];
+            updatedAt = new long[capacity];
+
+            Arrays.fill(rsi, Float.NaN);
+            Arrays.fill(atrPercentage, Float.NaN);
+        }
+
+        Columns(Columns from, int capacity) {
+            this(capacity);
+
+            int length = from.price.length;
+
+            System.arraycopy(from.price, 0, price, 0, length);
+            System.arraycopy(from.volume, 0, volume, 0, length);
+            System.arraycopy(from.averageVolume, 0, averageVolume, 0, length);
+            System.arraycopy(from.rsi, 0, rsi, 0, length);
+            System.arraycopy(from.atrPercentage, 0, atrPercentage, 0, length);
+            System.arraycopy(from.percentChange, 0, percentChange, 0, length);
+            System.arraycopy(from.updatedAt, 0, updatedAt, 0, length);
+        }
+    }
+
+    private volatile Columns columns;
+    // Highest id handed out plus one, scans stop here
+    private volatile int size = 0;
+
+    public InstrumentStateStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public InstrumentStateStore(int capacity) {
+        columns = new Columns(capacity);
+    }
+
+    /**
+     * Makes room for the id before its instrument is handed out. Growing copies every
+     * column, a row written by another shard during the copy keeps its old value until
+     * that symbol's next bar.
+     */
+    public synchronized void register(int id) {
+        Columns current = columns;
+
+        if (id >= current.price.length) {
+            columns = new Columns(current, Math.max(current.price.length * 2, id + 1));
+        }
+
+        if (id >= size) {
+            size = id + 1;
+        }
+    }
+
+    public void update(Instrument instrument) {
+        Columns current = columns;
+        int id = instrument.id;
+
+        current.price[id] = instrument.pricing.price != null ? instrument.pricing.price : 0;
+        current.volume[id] = instrument.pricing.priceStreams.volume.isEmpty() ? 0 : instrument.pricing.priceStreams.volume.getLast();
+        current.averageVolume[id] = instrument.statistics.volume.average != null ? instrument.statistics.volume.average : 0;
+        current.rsi[id] = instrument.statistics.indicators.rsi != null ? instrument.statistics.indicators.rsi : Float.NaN;
+        current.atrPercentage[id] = instrument.statistics.volatility.atrPercentage != null ? instrument.statistics.volatility.atrPercentage : Float.NaN;
+        current.percentChange[id] = instrument.statistics.movement != null ? instrument.statistics.movement.percentChange : 0;
+        current.updatedAt[id] = instrument.updatedAt;
+    }
+
+    /**
+     * Ids of the symbols that moved more than minPercentChange either way on at least
+     * volumeMultiple times their average volume, with the average dollar volume over minLiquidity
+     *
+     * @param minUpdatedAt System.nanoTime cutoff like Instrument.updatedAt, older rows are skipped so
+     *                     symbols that stopped trading or were unwatched do not match on their last bar
+     * @param ids Filled with the matching ids
+     * @return Number of ids written
+     */
+    public int scanMovers(float minPercentChange, float volumeMultiple, float minLiquidity, long minUpdatedAt, int[] ids) {
+        Columns current = columns;
+        int count = 0;
+        int end = Math.min(size, current.price.length);
+
+        for (int id = 0; id < end && count < ids.length; id++) {
+            float averageVolume = current.averageVolume[id];
+
+            if (
+                current.updatedAt[id] >= minUpdatedAt &&
+                Math.abs(current.percentChange[id]) > minPercentChange &&
+                current.volume[id] >= averageVolume * volumeMultiple &&
+                averageVolume * current.price[id] > minLiquidity
+            ) {
+                ids[count++] = id;
+            }
+        }
+
+        return count;
+    }
+
+    public float getPrice(int id) {
+        return columns.price[id];
+    }
+
+    public long getVolume(int id) {
+        return columns.volume[id];
+    }
+
+    public float getAverageVolume(int id) {
+        return columns.averageVolume[id];
+    }
+
+    public float getRSI(int id) {
+        return columns.rsi[id];
+    }
+
+    public float getATRPercentage(int id) {
+        return columns.atrPercentage[id];
+    }
+
+    public float getPercentChange(int id) {
+        return columns.percentChange[id];
+    }
+
+    public long getUpdatedAt(int id) {
+        return columns.updatedAt[id];
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -19,30 +19,36 @@ package relativity.instruments;
 
 import relativity.instruments.signals.MomentumService;
 import relativity.instruments.types.Instrument;
+import relativity.instruments.types.InstrumentPriceStream;
+import relativity.instruments.types.InstrumentSnapshot;
+import relativity.instruments.types.InstrumentSnapshots;
+import relativity.instruments.types.InstrumentStatistics;
+import relativity.instruments.types.TimeframeEnum;
 import relativity.instruments.signals.RSIDown;
 import relativity.instruments.signals.RSIUp;
-import relativity.workers.ThreadPool;
+import relativity.instruments.signals.RollingOrderStatistics;
+import relativity.instruments.signals.StreamingIndicators;
 import org.ta4j.core.Bar;
 import org.ta4j.core.BaseBar;
-import org.ta4j.core.indicators.ATRIndicator;
-import org.ta4j.core.indicators.RSIIndicator;
-import org.ta4j.core.indicators.SMAIndicator;
-import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
-import org.ta4j.core.indicators.statistics.StandardDeviationIndicator;
 import org.tinylog.Logger;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 public class InstrumentStatisticsService {
 
-    public ThreadPool pool;
+    private static final StatisticsMetricEnum[] METRICS = StatisticsMetricEnum.values();
+
+    public final StatisticsTimings timings = new StatisticsTimings();
+
+    /**************************************************************************
+     * Injected Dependencies
+     *************************************************************************/
+
+    // Every metric is computed until this is injected
+    public StatisticsDemand demand;
 
     public void addLatestPriceToInstrument(Instrument instrument, PriceMovement price, QuotePriceMovement quotePrice) throws ExecutionException, InterruptedException {
         // TODO: Get average price
@@ -61,29 +67,17 @@ public class InstrumentStatisticsService {
             Logger.warn("error inserting bar (double value) : " + instrument.symbol + ":" + price.time + " current time: " + System.currentTimeMillis());
         }
 
+        instrument.pricing.indicators.update(price);
         instrument.pricing.trailingPrices.add(price.close);
         instrument.pricing.price = price.close;
+        instrument.pricing.vwap = (float) instrument.pricing.indicators.vwap.getValue();
 
-        instrument.pricing.priceStreams.high.add(price.high);
-        instrument.pricing.priceStreams.low.add(price.low);
-        instrument.pricing.priceStreams.open.add(price.open);
-        instrument.pricing.priceStreams.close.add(price.close);
-        instrument.pricing.priceStreams.volume.add(price.volume);
-        instrument.pricing.priceStreams.time.add(price.time);
-
-        if (instrument.pricing.priceStreams.high.size() > 200) {
-            if (instrument.pricing.trailingPrices.size() >= 200) {
-                instrument.pricing.trailingPrices.subList(0, 100).clear();
-            }
-
-            instrument.pricing.priceStreams.high.subList(0, 100).clear();
-            instrument.pricing.priceStreams.low.subList(0, 100).clear();
-            instrument.pricing.priceStreams.open.subList(0, 100).clear();
-            instrument.pricing.priceStreams.close.subList(0, 100).clear();
-            instrument.pricing.priceStreams.volume.subList(0, 100).clear();
-            instrument.pricing.priceStreams.time.subList(0, 100).clear();
+        if (instrument.pricing.vwap > 0) {
+            instrument.pricing.vwapRatio = Math.abs(price.close - instrument.pricing.vwap) / instrument.pricing.vwap;
         }
 
+        instrument.pricing.priceStreams.add(price.open, price.high, price.low, price.close, price.volume, price.time);
+
         addLatestQuoteToInstrument(instrument, quotePrice);
 
         updateInstrumentStatistics(instrument, false);
@@ -93,6 +87,8 @@ public class InstrumentStatisticsService {
         price.analysisTime = nanoTime;
         instrument.updatedAt = nanoTime;
 
+        publishSnapshot(instrument, price);
+
 //        long lengthOfTimeFromAggregate = (millis - price.time);
         long lengthOfTime = (nanoTime - price.endTimeNano) / 1000;
 
@@ -105,50 +101,104 @@ public class InstrumentStatisticsService {
 //        Logger.info(security.symbol + " Aggregate Analysis " + lengthOfTimeFromAggregate + " ms");
     }
 
-    public Instrument addLatestMinutePriceToInstrument(Instrument instrument, PriceMovement price) throws ExecutionException, InterruptedException {
-
-        instrument.pricing.minutePriceStreams.high.add(price.high);
-        instrument.pricing.minutePriceStreams.low.add(price.low);
-        instrument.pricing.minutePriceStreams.open.add(price.open);
-        instrument.pricing.minutePriceStreams.close.add(price.close);
-        instrument.pricing.minutePriceStreams.volume.add(price.volume);
-        instrument.pricing.minutePriceStreams.time.add(price.time);
-
-        int size = instrument.pricing.minutePriceStreams.high.size();
-        if (size > 200) {
-            instrument.pricing.minutePriceStreams.high.subList(0, 100).clear();
-            instrument.pricing.minutePriceStreams.low.subList(0, 100).clear();
-            instrument.pricing.minutePriceStreams.open.subList(0, 100).clear();
-            instrument.pricing.minutePriceStreams.close.subList(0, 100).clear();
-            instrument.pricing.minutePriceStreams.volume.subList(0, 100).clear();
-            instrument.pricing.minutePriceStreams.time.subList(0, 100).clear();
+    /**
+     * Copies the bar and its statistics into the next snapshot and publishes it.
+     * Runs last for the bar so readers never see a view between two metrics.
+     */
+    public void publishSnapshot(Instrument instrument, PriceMovement price) {
+        InstrumentSnapshots snapshots = instrument.snapshots;
+        InstrumentSnapshot snapshot = snapshots.next();
+        InstrumentPriceStream stream = instrument.pricing.priceStreams;
+        InstrumentStatistics statistics = instrument.statistics;
+        int barCount = stream.size();
+        int previous = barCount > 1 ? 1 : 0;
+
+        snapshot.id = instrument.id;
+        snapshot.symbol = instrument.symbol;
+        snapshot.time = price.time;
+        snapshot.updatedAt = instrument.updatedAt;
+
+        snapshot.open = price.open;
+        snapshot.high = price.high;
+        snapshot.low = price.low;
+        snapshot.close = price.close;
+        snapshot.volume = price.volume;
+
+        snapshot.barCount = barCount;
+        snapshot.previousHigh = stream.high.getLast(previous);
+        snapshot.previousLow = stream.low.getLast(previous);
+        snapshot.previousVolume = stream.volume.getLast(previous);
+
+        snapshot.vwap = valueOf(instrument.pricing.vwap);
+        snapshot.rsi = valueOf(statistics.indicators.rsi);
+        snapshot.sma = valueOf(statistics.indicators.sma);
+        snapshot.ema = valueOf(statistics.indicators.ema);
+
+        snapshot.atr = valueOf(statistics.volatility.atr);
+        snapshot.atrPercentage = valueOf(statistics.volatility.atrPercentage);
+        snapshot.standardDeviationPercentage = valueOf(statistics.volatility.standardDeviationPercentage);
+
+        snapshot.volumeAverage = valueOf(statistics.volume.average);
+        snapshot.volumeMinuteAverage = valueOf(statistics.volume.minuteAverage);
+
+        PriceMovement movement = statistics.movement;
+        snapshot.movement = movement != null ? movement.movement : null;
+        snapshot.percentChange = movement != null ? movement.percentChange : Float.NaN;
+        snapshot.bidMovement = instrument.quoteStatistics.bidMovement != null ? instrument.quoteStatistics.bidMovement.movement : null;
+        snapshot.askMovement = instrument.quoteStatistics.askMovement != null ? instrument.quoteStatistics.askMovement.movement : null;
+        snapshot.buyRatio = instrument.quoteStatistics.spread.buyRatio;
+        snapshot.sellRatio = instrument.quoteStatistics.spread.sellRatio;
+
+        snapshots.publish(snapshot);
+    }
+
+    private static float valueOf(Float value) {
+        return value != null ? value : Float.NaN;
+    }
+
+    /**
+     * Stores a bar closed by the roll up in the instrument's stream for its timeframe
+     */
+    public void addLatestTimeframePriceToInstrument(Instrument instrument, TimeframeEnum timeframe, PriceMovement price) {
+        if (timeframe == TimeframeEnum.MINUTE) {
+            addLatestMinutePriceToInstrument(instrument, price);
+
+            return;
         }
 
-        updateInstrumentStatistics(instrument, true);
+        instrument.pricing.getPriceStream(timeframe).add(price.open, price.high, price.low, price.close, price.volume, price.time);
+    }
+
+    public Instrument addLatestMinutePriceToInstrument(Instrument instrument, PriceMovement price) {
+        instrument.pricing.minutePriceStreams.add(price.open, price.high, price.low, price.close, price.volume, price.time);
+        instrument.pricing.indicators.updateMinute(price);
+
+        instrument.statistics.indicators.minuteRsi = (float) instrument.pricing.indicators.minuteRsi.getValue();
 
         instrument.updatedAt = System.nanoTime();
 
         return instrument;
     }
 
+    /**
+     * Computes the per bar metrics anything has declared in one pass on the
+     * calling thread. Bars are closed on the shard that owns the symbol, so
+     * symbols run in parallel with each other while one symbol's metrics never
+     * fan out or block a pool thread. Undeclared metrics keep their last value.
+     */
     public void updateInstrumentStatistics(Instrument instrument, Boolean minute) throws ExecutionException, InterruptedException {
-//        synchronized (security) {
         try {
-            long startTime = System.nanoTime();
-            CompletableFuture<Void> future = CompletableFuture.allOf(
-                pool.runAsync(() -> calculateDayHighAndLow(instrument)),
-                pool.runAsync(() -> calculateLatestHighAndLow(instrument)),
-                pool.runAsync(() -> calculateRSI(instrument)),
-                pool.runAsync(() -> calculateVolumeMetrics(instrument)),
-                pool.runAsync(() -> calculateTrends(instrument)),
-                pool.runAsync(() -> calculateVolatility(instrument)),
-                pool.runAsync(() -> calculateMovement(instrument, 10))
-            );
-
-            future.get();
-
-            long endTime = System.nanoTime();
-            long lengthOfTime = (endTime - startTime) / 1000;
+            int required = demand != null
+                ? demand.getMask(instrument.id)
+                : StatisticsDemand.ALL;
+
+            instrument.statistics.computedMetrics = StatisticsDemand.NONE;
+
+            for (StatisticsMetricEnum metric : METRICS) {
+                if (StatisticsDemand.contains(required, metric)) {
+                    ensureStatistic(instrument, metric);
+                }
+            }
         } catch (Exception e) {
             e.printStackTrace();
         } catch (Error e) {
@@ -156,11 +206,34 @@ public class InstrumentStatisticsService {
         } catch (Throwable e) {
             e.printStackTrace();
         }
+    }
+
+    /**
+     * Computes the metric for the latest bar if it has not been yet, for code
+     * that reads a metric nobody declared. The metric is computed at most once
+     * per bar. Only call this from the symbol's shard since it writes the
+     * instrument's statistics.
+     */
+    public void ensureStatistic(Instrument instrument, StatisticsMetricEnum metric) {
+        if (StatisticsDemand.contains(instrument.statistics.computedMetrics, metric)) {
+            return;
+        }
+
+        long startTime = System.nanoTime();
+
+        switch (metric) {
+            case RSI -> calculateRSI(instrument);
+            case VOLUME -> calculateVolumeMetrics(instrument);
+            case VOLATILITY -> calculateVolatility(instrument);
+            case MOVEMENT -> calculateMovement(instrument, 10);
+        }
 
-//            if (lengthOfTime < 50) {
-//                Logger.info(security.symbol + " Analysis " + lengthOfTime + " µs");
-//            }
-//        }
+        timings.record(metric, startTime);
+        instrument.statistics.computedMetrics |= StatisticsDemand.mask(metric);
+    }
+
+    public void logStatistics() {
+        Logger.info(timings);
     }
 
     public void updateInstrumentQuoteStatistics(Instrument instrument, Boolean minute) throws ExecutionException, InterruptedException {
@@ -170,8 +243,8 @@ public class InstrumentStatisticsService {
             // TODO: volume
 
             if (instrument.pricing.quoteBidPriceStreams.volume.size() > 0) {
-                Long bidVolume = instrument.pricing.quoteBidPriceStreams.volume.getLast();
-                Long askVolume = instrument.pricing.quoteAskPriceStreams.volume.getLast();
+                long bidVolume = instrument.pricing.quoteBidPriceStreams.volume.getLast();
+                long askVolume = instrument.pricing.quoteAskPriceStreams.volume.getLast();
 
                 if (bidVolume > 0 && askVolume > 0) {
                     instrument.quoteStatistics.spread.buyRatio = (float) bidVolume / askVolume;
@@ -185,20 +258,14 @@ public class InstrumentStatisticsService {
         }
     }
 
-    public void calculateDayHighAndLow(Instrument instrument) {
-
-    }
-
-    public void calculateLatestHighAndLow(Instrument instrument) {
-
-    }
-
     public void calculateRSI(Instrument instrument) {
-        ClosePriceIndicator closePrice = new ClosePriceIndicator(instrument.pricing.tradeSeries);
-        RSIIndicator rsiIndicator = new RSIIndicator(closePrice, 14);
+        StreamingIndicators indicators = instrument.pricing.indicators;
 
-        instrument.statistics.indicators.rsi = rsiIndicator.getValue(instrument.pricing.tradeSeries.getEndIndex()).floatValue();
+        instrument.statistics.indicators.rsi = (float) indicators.rsi.getValue();
         instrument.statistics.indicators.rsiValues.add(instrument.statistics.indicators.rsi);
+        instrument.statistics.indicators.sma = (float) indicators.sma.getValue();
+        instrument.statistics.indicators.ema = (float) indicators.ema.getValue();
+        instrument.statistics.indicators.vwap = instrument.pricing.vwap;
 
         // TODO: Add an indicator RSI is in consolidation or within a range
         instrument.statistics.indicators.rsiUp = RSIUp.run(instrument, 2, 14);
@@ -210,80 +277,40 @@ public class InstrumentStatisticsService {
     }
 
     public void calculateStandardDeviation(Instrument instrument) {
-        ClosePriceIndicator closePrice = new ClosePriceIndicator(instrument.pricing.tradeSeries);
-        StandardDeviationIndicator standardDeviation = new StandardDeviationIndicator(closePrice, 14);
-        SMAIndicator sma = new SMAIndicator(closePrice, 14);
+        StreamingIndicators indicators = instrument.pricing.indicators;
 
-        instrument.statistics.volatility.standardDeviation = standardDeviation.getValue(instrument.pricing.tradeSeries.getEndIndex()).floatValue();
-        instrument.statistics.volatility.standardDeviationPercentage = (instrument.statistics.volatility.standardDeviation / sma.getValue(instrument.pricing.tradeSeries.getEndIndex()).floatValue()) * 100;
+        instrument.statistics.volatility.standardDeviation = (float) indicators.variance.getStandardDeviation();
+        instrument.statistics.volatility.standardDeviationPercentage = (float) (indicators.variance.getStandardDeviation() / indicators.sma.getValue()) * 100;
         // TODO: do this also for the minute values
     }
 
     public void calculateAverageTrueRange(Instrument instrument) {
-        ClosePriceIndicator closePrice = new ClosePriceIndicator(instrument.pricing.tradeSeries);
-        ATRIndicator atr = new ATRIndicator(instrument.pricing.tradeSeries, 14);
-
-        instrument.statistics.volatility.atr = atr.getValue(instrument.pricing.tradeSeries.getEndIndex()).floatValue();
+        instrument.statistics.volatility.atr = (float) instrument.pricing.indicators.atr.getValue();
         instrument.statistics.volatility.atrPercentage = (instrument.statistics.volatility.atr / instrument.pricing.price) * 100;
     }
 
     public void calculateVolumeMetrics(Instrument instrument) {
-//        security.pricing.tradeSeries.addTrade()
-        if (instrument.pricing.priceStreams.volume.size() > 0) {
-//            long startTime = System.nanoTime();
-             Float sum = 0.0F;
-
-             for (Long volume : instrument.pricing.priceStreams.volume) {
-                 sum += volume;
-             }
-
-             instrument.statistics.volume.average = sum / instrument.pricing.priceStreams.volume.size();
-             instrument.statistics.volume.minuteAverage = sum / (instrument.pricing.priceStreams.volume.size() / 60);
-
-             sum = 0.0F;
-
-             for (Long volume : instrument.pricing.quoteBidPriceStreams.volume) {
-                 sum += volume;
-             }
-             instrument.quoteStatistics.bidVolume.average = sum / instrument.pricing.quoteBidPriceStreams.volume.size();
+        StreamingIndicators indicators = instrument.pricing.indicators;
+        RollingOrderStatistics volume = indicators.volume;
+        int size = volume.getSize();
 
-             sum = 0.0F;
+        if (size > 0) {
+            instrument.statistics.volume.average = (float) volume.getMean();
+            instrument.statistics.volume.minuteAverage = (float) volume.getMean() * 60;
+            instrument.statistics.volume.last5MinuteAverage = (float) indicators.fiveMinuteVolume.getValue() * 60;
+            instrument.statistics.volume.last10MinuteAverage = (float) indicators.tenMinuteVolume.getValue() * 60;
 
-             for (Long volume : instrument.pricing.quoteAskPriceStreams.volume) {
-                sum += volume;
-             }
+            instrument.quoteStatistics.bidVolume.average = (float) indicators.bidVolume.getValue();
+            instrument.quoteStatistics.askVolume.average = (float) indicators.askVolume.getValue();
 
-             instrument.quoteStatistics.askVolume.average = sum / instrument.pricing.quoteAskPriceStreams.volume.size();
-//             security.quoteStatistics.askVolume.average = security.pricing.quoteAskPriceStreams.volume.stream().mapToLong(Long::longValue).average().orElse(0);
-//            long endTime = System.nanoTime();
-//            Logger.info("(Average) Took " + ((endTime - startTime) / 1000) + " µs ");
-
-//            startTime = System.nanoTime();
-            List<Long> sortedVolume = new ArrayList<>(instrument.pricing.priceStreams.volume);
-            Collections.sort(sortedVolume);
-//            endTime = System.nanoTime();
-//            Logger.info("(Collection Sort) Took " + ((endTime - startTime) / 1000) + " µs ");
-
-            instrument.statistics.volume.median = sortedVolume.get(sortedVolume.size() / 2);
-            instrument.statistics.volume.minuteMedian = sortedVolume.get((sortedVolume.size() / 60) / 2);
+            instrument.statistics.volume.median = volume.getMedian();
+            instrument.statistics.volume.minuteMedian = volume.get((size / 60) / 2);
         }
     }
 
-    public void calculateTrends(Instrument instrument) {
-
-    }
-
     public void calculateVolatility(Instrument instrument) {
-        try {
-            CompletableFuture<Void> future = CompletableFuture.allOf(
-                pool.runAsync(() -> calculateAverageTrueRange(instrument)),
-                pool.runAsync(() -> calculateStandardDeviation(instrument))
-            );
-
-            future.get();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        calculateAverageTrueRange(instrument);
+        calculateStandardDeviation(instrument);
 //            Logger.info(security.symbol +  " ATR: " + security.statistics.volatility.atr + " ATR Percentage: " + security.statistics.volatility.atrPercentage + " Standard Deviation: " + security.statistics.volatility.standardDeviation + " Standard Deviation %: " + security.statistics.volatility.standardDeviationPercentage);
     }
 
@@ -296,19 +323,9 @@ public class InstrumentStatisticsService {
     }
 
     public void addLatestQuoteToInstrument(Instrument instrument, QuotePriceMovement price) throws ExecutionException, InterruptedException {
-        instrument.pricing.quoteAskPriceStreams.high.add(price.askHigh);
-        instrument.pricing.quoteAskPriceStreams.low.add(price.askLow);
-        instrument.pricing.quoteAskPriceStreams.open.add(price.askOpen);
-        instrument.pricing.quoteAskPriceStreams.close.add(price.askClose);
-        instrument.pricing.quoteAskPriceStreams.volume.add(price.askVolume);
-        instrument.pricing.quoteAskPriceStreams.time.add(price.time);
-
-        instrument.pricing.quoteBidPriceStreams.high.add(price.bidHigh);
-        instrument.pricing.quoteBidPriceStreams.low.add(price.bidLow);
-        instrument.pricing.quoteBidPriceStreams.open.add(price.bidOpen);
-        instrument.pricing.quoteBidPriceStreams.close.add(price.bidClose);
-        instrument.pricing.quoteBidPriceStreams.volume.add(price.bidVolume);
-        instrument.pricing.quoteBidPriceStreams.time.add(price.time);
+        instrument.pricing.indicators.updateQuote(price);
+        instrument.pricing.quoteAskPriceStreams.add(price.askOpen, price.askHigh, price.askLow, price.askClose, price.askVolume, price.time);
+        instrument.pricing.quoteBidPriceStreams.add(price.bidOpen, price.bidHigh, price.bidLow, price.bidClose, price.bidVolume, price.time);
 
         try{
             instrument.pricing.quoteAskSeries.addBar(new BaseBar(
@@ -330,24 +347,6 @@ public class InstrumentStatisticsService {
             Logger.warn("error inserting bar (double value) : " + instrument.symbol + ":" + price.time + " current time: " + System.currentTimeMillis());
         }
 
-        int size = instrument.pricing.quoteAskPriceStreams.high.size();
-
-        if (size > 200) {
-            instrument.pricing.quoteAskPriceStreams.high.subList(0, 100).clear();
-            instrument.pricing.quoteAskPriceStreams.low.subList(0, 100).clear();
-            instrument.pricing.quoteAskPriceStreams.open.subList(0, 100).clear();
-            instrument.pricing.quoteAskPriceStreams.close.subList(0, 100).clear();
-            instrument.pricing.quoteAskPriceStreams.volume.subList(0, 100).clear();
-            instrument.pricing.quoteAskPriceStreams.time.subList(0, 100).clear();
-
-            instrument.pricing.quoteBidPriceStreams.high.subList(0, 100).clear();
-            instrument.pricing.quoteBidPriceStreams.low.subList(0, 100).clear();
-            instrument.pricing.quoteBidPriceStreams.open.subList(0, 100).clear();
-            instrument.pricing.quoteBidPriceStreams.close.subList(0, 100).clear();
-            instrument.pricing.quoteBidPriceStreams.volume.subList(0, 100).clear();
-            instrument.pricing.quoteBidPriceStreams.time.subList(0, 100).clear();
-        }
-
         updateInstrumentQuoteStatistics(instrument, false);
 
         instrument.updatedAt = System.nanoTime();
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments;
+
+import java.util.Arrays;
+
+/**
+ * One side of an order book keyed by price in cents.
+ * Levels live in an open addressing long to long map, so adding size to a
+ * level is constant time and allocation free once the ladder has warmed up.
+ * The slots in use are tracked separately so clearing and copying only
+ * touch the levels that were actually populated.
+ */
+public class PriceLadder {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    public final boolean bid;
+
+    private long[] keys;
+    private long[] sizes;
+    private int[] used;
+    private int levels = 0;
+    private int mask;
+
+    private long totalVolume = 0;
+    private long bestTicks = EMPTY;
+
+    public PriceLadder(boolean bid) {
+        this(bid, 64);
+    }
+
+    public PriceLadder(boolean bid, int initialCapacity) {
+        this.bid = bid;
+
+        int capacity = Integer.highestOneBit(Math.max(initialCapacity, 8) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public static long toTicks(float price) {
+        return Math.round(price * 100d);
+    }
+
+    public static float toPrice(long ticks) {
+        return ticks / 100f;
+    }
+
+    public void add(float price, long size) {
+        addTicks(toTicks(price), size);
+    }
+
+    public void addTicks(long ticks, long size) {
+        int slot = findSlot(ticks);
+
+        if (keys[slot] == EMPTY) {
+            if ((levels + 1) * 2 > keys.length) {
+                grow();
+                slot = findSlot(ticks);
+            }
+
+            keys[slot] = ticks;
+            sizes[slot] = 0;
+            used[levels++] = slot;
+
+            if (bestTicks == EMPTY || (bid ? ticks > bestTicks : ticks < bestTicks)) {
+                bestTicks = ticks;
+            }
+        }
+
+        sizes[slot] += size;
+        totalVolume += size;
+    }
+
+    public long getSize(float price) {
+        int slot = findSlot(toTicks(price));
+
+        return keys[slot] == EMPTY ? 0 : sizes[slot];
+    }
+
+    public boolean isEmpty() {
+        return levels == 0;
+    }
+
+    /**
+     * Highest bid or lowest ask seen, 0 when the ladder is empty
+     */
+    public float getBestPrice() {
+        return bestTicks == EMPTY ? 0 : toPrice(bestTicks);
+    }
+
+    public long getBestSize() {
+        if (bestTicks == EMPTY) {
+            return 0;
+        }
+
+        return sizes[findSlot(bestTicks)];
+    }
+
+    /**
+     * Number of distinct price levels
+     */
+    public int getDepth() {
+        return levels;
+    }
+
+    public long getTotalVolume() {
+        return totalVolume;
+    }
+
+    /**
+     * Size resting within the given number of cents from the best price
+     */
+    public long getVolumeWithin(long ticks) {
+        if (bestTicks == EMPTY) {
+            return 0;
+        }
+
+        long volume = 0;
+
+        for (int i = 0; i < levels; i++) {
+            int slot = used[i];
+
+            if (Math.abs(keys[slot] - bestTicks) <= ticks) {
+                volume += sizes[slot];
+            }
+        }
+
+        return volume;
+    }
+
+    public void clear() {
+        for (int i = 0; i < levels; i++) {
+            keys[used[i]] = EMPTY;
+        }
+
+        levels = 0;
+        totalVolume = 0;
+        bestTicks = EMPTY;
+    }
+
+    public void copyFrom(PriceLadder other) {
+        clear();
+
+        if (keys.length < other.keys.length) {
+            allocate(other.keys.length);
+        }
+
+        for (int i = 0; i < other.levels; i++) {
+            int slot = other.used[i];
+            addTicks(other.keys[slot], other.sizes[slot]);
+        }
+    }
+
+    /**
+     * Total bid size against total ask size, from -1 (all asks) to 1 (all bids)
+     */
+    public static float imbalance(PriceLadder bids, PriceLadder asks) {
+        long total = bids.totalVolume + asks.totalVolume;
+
+        return total == 0 ? 0 : (float) (bids.totalVolume - asks.totalVolume) / total;
+    }
+
+    /**
+     * Size at the best bid against size at the best ask, from -1 to 1
+     */
+    public static float bestLevelImbalance(PriceLadder bids, PriceLadder asks) {
+        long bidSize = bids.getBestSize();
+        long askSize = asks.getBestSize();
+        long total = bidSize + askSize;
+
+        return total == 0 ? 0 : (float) (bidSize - askSize) / total;
+    }
+
+    private int findSlot(long ticks) {
+        int slot = hash(ticks) & mask;
+
+        while (keys[slot] != EMPTY && keys[slot] != ticks) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private static int hash(long ticks) {
+        long h = ticks * 0x9E3779B97F4A7C15L;
+
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        sizes = new long[capacity];
+        used = new int[capacity];
+        mask = capacity - 1;
+        levels = 0;
+        totalVolume = 0;
+        bestTicks = EMPTY;
+
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldSizes = sizes;
+        int[] oldUsed = used;
+        int oldLevels = levels;
+
+        allocate(oldKeys.length * 2);
+
+        for (int i = 0; i < oldLevels; i++) {
+            int slot = oldUsed[i];
+            addTicks(oldKeys[slot], oldSizes[slot]);
+        }
+    }
+}
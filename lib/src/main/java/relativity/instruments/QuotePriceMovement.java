@@ -38,8 +38,9 @@ public class QuotePriceMovement extends PriceMovement {
     public ConcurrentHashMap<String, SimpleLimitOrder> buyOrders;
     public ConcurrentHashMap<String, SimpleLimitOrder> sellOrders;
 
-    public ConcurrentHashMap<String, Long> bidPrices = new ConcurrentHashMap<>() {};
-    public ConcurrentHashMap<String, Long> askPrices = new ConcurrentHashMap<>() {};
+    // Size seen at each price during the aggregate
+    public PriceLadder bidLadder = new PriceLadder(true);
+    public PriceLadder askLadder = new PriceLadder(false);
 
     public float spread; // This can be calculated from the close prices
     public float spreadPercent;
@@ -58,7 +59,7 @@ public class QuotePriceMovement extends PriceMovement {
     public void reset() {
         super.reset();
 
-        bidPrices.clear();
-        askPrices.clear();
+        bidLadder.clear();
+        askLadder.clear();
     }
 }
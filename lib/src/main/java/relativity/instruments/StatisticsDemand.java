@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which statistics metrics anything actually reads, so InstrumentStatisticsService
+ * only computes the union. Listeners declare metrics they read for every symbol
+ * under a name, declaring again replaces the previous set. Strategies declare
+ * metrics for their own symbol, counted so two strategies on one symbol can
+ * each release theirs.
+ */
+public class StatisticsDemand {
+    private static final StatisticsMetricEnum[] METRICS = StatisticsMetricEnum.values();
+
+    public static final int NONE = 0;
+    public static final int ALL = (1 << METRICS.length) - 1;
+
+    private final ConcurrentHashMap<String, Integer> allSymbolDemands = new ConcurrentHashMap<>();
+    private volatile int allSymbolsMask = NONE;
+
+    // Indexed by SymbolTable id
+    private final SymbolIndexedArray<SymbolDemand> symbolDemands = new SymbolIndexedArray<>();
+
+    static class SymbolDemand {
+        final int[] counts = new int[METRICS.length];
+        volatile int mask = NONE;
+    }
+
+    public static int mask(StatisticsMetricEnum... metrics) {
+        int mask = NONE;
+
+        for (StatisticsMetricEnum metric : metrics) {
+            mask |= 1 << metric.ordinal();
+        }
+
+        return mask;
+    }
+
+    public static boolean contains(int mask, StatisticsMetricEnum metric) {
+        return (mask & (1 << metric.ordinal())) != 0;
+    }
+
+    /**
+     * Metrics read for every symbol by the named consumer
+     */
+    public synchronized void require(String name, int mask) {
+        allSymbolDemands.put(name, mask);
+        allSymbolsMask = union();
+    }
+
+    public synchronized void release(String name) {
+        allSymbolDemands.remove(name);
+        allSymbolsMask = union();
+    }
+
+    /**
+     * Metrics read for one symbol, released with the same mask when no longer needed
+     */
+    public synchronized void require(int symbolId, int mask) {
+        if (symbolId < 0) {
+            return;
+        }
+
+        SymbolDemand demand = symbolDemands.computeIfAbsent(symbolId, id -> new SymbolDemand());
+
+        for (int i = 0; i < METRICS.length; i++) {
+            if ((mask & (1 << i)) != 0) {
+                demand.counts[i]++;
+            }
+        }
+
+        demand.mask = countsToMask(demand.counts);
+    }
+
+    public synchronized void release(int symbolId, int mask) {
+        SymbolDemand demand = symbolDemands.get(symbolId);
+
+        if (demand == null) {
+            return;
+        }
+
+        for (int i = 0; i < METRICS.length; i++) {
+            if ((mask & (1 << i)) != 0 && demand.counts[i] > 0) {
+                demand.counts[i]--;
+            }
+        }
+
+        demand.mask = countsToMask(demand.counts);
+    }
+
+    /**
+     * Union of every metric declared for all symbols and for this symbol,
+     * read once per bar so it is two volatile loads
+     */
+    public int getMask(int symbolId) {
+        SymbolDemand demand = symbolDemands.get(symbolId);
+
+        return demand != null
+            ? allSymbolsMask | demand.mask
+            : allSymbolsMask;
+    }
+
+    public boolean isRequired(int symbolId, StatisticsMetricEnum metric) {
+        return contains(getMask(symbolId), metric);
+    }
+
+    private int union() {
+        int mask = NONE;
+
+        for (int demand : allSymbolDemands.values()) {
+            mask |= demand;
+        }
+
+        return mask;
+    }
+
+    private static int countsToMask(int[] counts) {
+        int mask = NONE;
+
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                mask |= 1 << i;
+            }
+        }
+
+        return mask;
+    }
+}
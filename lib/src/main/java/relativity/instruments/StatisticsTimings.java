@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Time spent in each statistics metric, summed over every symbol.
+ * Symbols are updated concurrently from their shards, so the totals are
+ * striped adders rather than plain longs.
+ */
+public class StatisticsTimings {
+    private static final StatisticsMetricEnum[] METRICS = StatisticsMetricEnum.values();
+
+    private final LongAdder[] nanos = new LongAdder[METRICS.length];
+    private final LongAdder[] counts = new LongAdder[METRICS.length];
+    private final LongAccumulator[] maxNanos = new LongAccumulator[METRICS.length];
+
+    public StatisticsTimings() {
+        for (int i = 0; i < METRICS.length; i++) {
+            nanos[i] = new LongAdder();
+            counts[i] = new LongAdder();
+            maxNanos[i] = new LongAccumulator(Long::max, 0);
+        }
+    }
+
+    /**
+     * Records the time since startNanos against the metric
+     *
+     * @return The current nano time, to start timing the next metric from
+     */
+    public long record(StatisticsMetricEnum metric, long startNanos) {
+        long now = System.nanoTime();
+        long elapsed = now - startNanos;
+        int index = metric.ordinal();
+
+        nanos[index].add(elapsed);
+        counts[index].increment();
+        maxNanos[index].accumulate(elapsed);
+
+        return now;
+    }
+
+    public long getCount(StatisticsMetricEnum metric) {
+        return counts[metric.ordinal()].sum();
+    }
+
+    public double getAverageMicros(StatisticsMetricEnum metric) {
+        long count = getCount(metric);
+
+        return count > 0 ? nanos[metric.ordinal()].sum() / 1000.0 / count : 0;
+    }
+
+    public double getMaxMicros(StatisticsMetricEnum metric) {
+        return maxNanos[metric.ordinal()].get() / 1000.0;
+    }
+
+    public void reset() {
+        for (int i = 0; i < METRICS.length; i++) {
+            nanos[i].reset();
+            counts[i].reset();
+            maxNanos[i].reset();
+        }
+    }
+
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Statistics");
+
+        for (StatisticsMetricEnum metric : METRICS) {
+            builder.append(" ").append(metric.value)
+                .append(" avg: ").append(String.format("%.1f", getAverageMicros(metric))).append(" µs")
+                .append(" max: ").append(String.format("%.1f", getMaxMicros(metric))).append(" µs");
+        }
+
+        return builder.toString();
+    }
+}
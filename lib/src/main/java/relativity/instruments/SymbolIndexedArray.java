@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * Values indexed by SymbolTable id, in place of a map keyed by the symbol.
+ * Reads are a volatile array load. Writes take a lock so the array can
+ * grow without losing a concurrent write.
+ */
+public class SymbolIndexedArray<T> {
+    private volatile AtomicReferenceArray<T> values;
+
+    public SymbolIndexedArray() {
+        this(1024);
+    }
+
+    public SymbolIndexedArray(int initialCapacity) {
+        values = new AtomicReferenceArray<>(Math.max(initialCapacity, 16));
+    }
+
+    public T get(int id) {
+        AtomicReferenceArray<T> current = values;
+
+        return id >= 0 && id < current.length() ? current.get(id) : null;
+    }
+
+    public synchronized void set(int id, T value) {
+        ensureCapacity(id);
+        values.set(id, value);
+    }
+
+    public T computeIfAbsent(int id, IntFunction<T> factory) {
+        T value = get(id);
+
+        if (value != null) {
+            return value;
+        }
+
+        synchronized (this) {
+            value = get(id);
+
+            if (value == null) {
+                value = factory.apply(id);
+                set(id, value);
+            }
+
+            return value;
+        }
+    }
+
+    public synchronized void remove(int id) {
+        if (id >= 0 && id < values.length()) {
+            values.set(id, null);
+        }
+    }
+
+    private void ensureCapacity(int id) {
+        AtomicReferenceArray<T> current = values;
+
+        if (id < current.length()) {
+            return;
+        }
+
+        AtomicReferenceArray<T> grown = new AtomicReferenceArray<>(Math.max(current.length() * 2, id + 1));
+
+        for (int i = 0; i < current.length(); i++) {
+            grown.set(i, current.get(i));
+        }
+
+        values = grown;
+    }
+}
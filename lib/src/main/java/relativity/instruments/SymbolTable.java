@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns symbols into dense, stable int ids starting at 0.
+ * A symbol is hashed once when its message enters the pipeline, after that
+ * processors, instruments and strategies are found by indexing arrays with
+ * the id. The symbol string is only needed again for logging and the APIs.
+ * Ids are never reused for the life of the process.
+ */
+public class SymbolTable {
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final SymbolIndexedArray<String> symbols = new SymbolIndexedArray<>();
+    private int size = 0;
+
+    /**
+     * Id for the symbol, assigning the next one the first time it is seen
+     */
+    public int getId(String symbol) {
+        Integer id = ids.get(symbol);
+
+        if (id != null) {
+            return id;
+        }
+
+        return register(symbol);
+    }
+
+    /**
+     * @return The symbol's id, or -1 when it has never been seen
+     */
+    public int findId(String symbol) {
+        Integer id = ids.get(symbol);
+
+        return id != null ? id : -1;
+    }
+
+    public String getSymbol(int id) {
+        return symbols.get(id);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized int register(String symbol) {
+        Integer id = ids.get(symbol);
+
+        if (id != null) {
+            return id;
+        }
+
+        int next = size++;
+
+        // Published by id first so anyone who reads the id can resolve it back
+        symbols.set(next, symbol);
+        ids.put(symbol, next);
+
+        return next;
+    }
+}
@@ -56,8 +56,13 @@ public class PolygonQuote {
     @JSONField(name="q")
     public long q; // sequence number
 
+    // Assigned from the SymbolTable when the message enters the pipeline, -1 until then
+    @JSONField(serialize = false, deserialize = false)
+    public int symbolId = -1;
+
     public void reset() {
         sym = null;
+        symbolId = -1;
         bx = 0;
         ax = 0;
         bp = 0;
@@ -69,4 +74,20 @@ public class PolygonQuote {
         t = 0;
         q = 0;
     }
+
+    public void copyFrom(PolygonQuote quote) {
+        ev = quote.ev;
+        sym = quote.sym;
+        symbolId = quote.symbolId;
+        bx = quote.bx;
+        ax = quote.ax;
+        bp = quote.bp;
+        ap = quote.ap;
+        bs = quote.bs;
+        as = quote.as;
+        c = quote.c;
+        i = quote.i;
+        t = quote.t;
+        q = quote.q;
+    }
 }
@@ -56,9 +56,14 @@ public class PolygonTrade {
     @JSONField(name="trft")
     public long trft; // trade reporting facility timestamp
 
+    // Assigned from the SymbolTable when the message enters the pipeline, -1 until then
+    @JSONField(serialize = false, deserialize = false)
+    public int symbolId = -1;
+
     public void reset() {
         ev = null;
         sym = null;
+        symbolId = -1;
         i = null;
         x = null;
         p = 0;
@@ -70,4 +75,20 @@ public class PolygonTrade {
         trfi = 0;
         trft = 0;
     }
+
+    public void copyFrom(PolygonTrade trade) {
+        ev = trade.ev;
+        sym = trade.sym;
+        symbolId = trade.symbolId;
+        i = trade.i;
+        x = trade.x;
+        p = trade.p;
+        s = trade.s;
+        c = trade.c;
+        t = trade.t;
+        q = trade.q;
+        z = trade.z;
+        trfi = trade.trfi;
+        trft = trade.trft;
+    }
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments.signals;
+
+// Wilder's average true range, matching ta4j's ATRIndicator (the first true range is high - low)
+public class AverageTrueRange {
+    public final int period;
+
+    private double value;
+    private double previousClose;
+    private long count;
+
+    public AverageTrueRange(int period) {
+        this.period = period;
+    }
+
+    public double update(double high, double low, double close) {
+        double trueRange = Math.abs(high - low);
+
+        if (count > 0) {
+            trueRange = Math.max(trueRange, Math.abs(high - previousClose));
+            trueRange = Math.max(trueRange, Math.abs(previousClose - low));
+
+            value += (trueRange - value) / period;
+        } else {
+            value = trueRange;
+        }
+
+        previousClose = close;
+        count++;
+
+        return value;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void reset() {
+        value = 0;
+        previousClose = 0;
+        count = 0;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments.signals;
+
+// Exponential moving average with the 2 / (period + 1) multiplier, seeded with the first value like ta4j's EMAIndicator
+public class ExponentialMovingAverage {
+    public final int period;
+    public final double multiplier;
+
+    private double value;
+    private long count;
+
+    public ExponentialMovingAverage(int period) {
+        this.period = period;
+        this.multiplier = 2.0 / (period + 1);
+    }
+
+    public double update(double price) {
+        if (count == 0) {
+            value = price;
+        } else {
+            value += (price - value) * multiplier;
+        }
+
+        count++;
+
+        return value;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void reset() {
+        value = 0;
+        count = 0;
+    }
+}
@@ -19,17 +19,16 @@ package relativity.instruments.signals;
 
 import relativity.instruments.PriceMovement;
 import relativity.instruments.types.MovementEnum;
+import relativity.instruments.types.FloatRingBuffer;
 import relativity.instruments.types.Instrument;
 import org.tinylog.Logger;
 
-import java.util.ArrayList;
-
 public class MomentumService {
     public static PriceMovement getMovement(Instrument instrument, int numberOfPrices) {
         return getMovement(instrument.pricing.trailingPrices, numberOfPrices);
     }
 
-    public static PriceMovement getMovement(ArrayList<Float> prices, int numberOfPrices) {
+    public static PriceMovement getMovement(FloatRingBuffer prices, int numberOfPrices) {
         int size = prices.size();
 
         if (size == 0) {
@@ -41,10 +40,10 @@ public class MomentumService {
             ? size - (numberOfPrices + 1)
             : 0;
 
-        Float open = prices.get(openIndex);
-        Float close = prices.getLast();
-        Float change = close - open;
-        Float percentChange = change / open;
+        float open = prices.get(openIndex);
+        float close = prices.getLast();
+        float change = close - open;
+        float percentChange = change / open;
 
         MovementEnum movement = MovementEnum.NONE;
 
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments.signals;
+
+import java.util.Arrays;
+
+/**
+ * Order statistics over a sliding window of longs.
+ * Arrival order is kept in a ring so the oldest value can be evicted, and a
+ * second array keeps the same values sorted. Each update removes the evicted
+ * value and inserts the new one with a binary search and one shift, so the
+ * median, any percentile and the mean are read without sorting a copy.
+ * Windows are a few hundred bars, where the shift stays in cache and beats
+ * a heap or skip list that would allocate or pointer chase.
+ */
+public class RollingOrderStatistics {
+    public final int period;
+
+    private final long[] window;
+    private final long[] sorted;
+    private int head;
+    private int size;
+    private long sum;
+
+    public RollingOrderStatistics(int period) {
+        this.period = period;
+        this.window = new long[period];
+        this.sorted = new long[period];
+    }
+
+    public void update(long value) {
+        if (size == period) {
+            remove(window[head]);
+        }
+
+        window[head] = value;
+        head = (head + 1) % period;
+        sum += value;
+
+        int index = Arrays.binarySearch(sorted, 0, size, value);
+
+        if (index < 0) {
+            index = -(index + 1);
+        }
+
+        System.arraycopy(sorted, index, sorted, index + 1, size - index);
+        sorted[index] = value;
+        size++;
+    }
+
+    private void remove(long value) {
+        int index = Arrays.binarySearch(sorted, 0, size, value);
+
+        System.arraycopy(sorted, index + 1, sorted, index, size - index - 1);
+        size--;
+        sum -= value;
+    }
+
+    /**
+     * @param rank 0 for the smallest value in the window, getSize() - 1 for the largest
+     */
+    public long get(int rank) {
+        if (rank < 0 || rank >= size) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " out of bounds for length " + size);
+        }
+
+        return sorted[rank];
+    }
+
+    // Upper median for an even window, the same element sorting and reading size / 2 gives
+    public long getMedian() {
+        return size == 0 ? 0 : sorted[size / 2];
+    }
+
+    /**
+     * Nearest rank percentile
+     *
+     * @param percentile Between 0 and 1
+     */
+    public long getPercentile(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+
+        int rank = (int) Math.ceil(percentile * size) - 1;
+
+        return sorted[Math.min(Math.max(rank, 0), size - 1)];
+    }
+
+    public double getMean() {
+        return size == 0 ? 0 : (double) sum / size;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void reset() {
+        head = 0;
+        size = 0;
+        sum = 0;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments.signals;
+
+// Welford's running mean and variance over a sliding window; the evicted value is removed with the inverse update.
+// Variance is the population variance so it lines up with ta4j's VarianceIndicator/StandardDeviationIndicator.
+public class RollingVariance {
+    public final int period;
+
+    private final double[] window;
+    private int head;
+    private int size;
+    private double mean;
+    private double m2;
+
+    public RollingVariance(int period) {
+        this.period = period;
+        this.window = new double[period];
+    }
+
+    public double update(double value) {
+        if (size == period) {
+            remove(window[head]);
+        }
+
+        window[head] = value;
+        head = (head + 1) % period;
+        size++;
+
+        double delta = value - mean;
+        mean += delta / size;
+        m2 += delta * (value - mean);
+
+        return getVariance();
+    }
+
+    private void remove(double value) {
+        size--;
+
+        if (size == 0) {
+            mean = 0;
+            m2 = 0;
+
+            return;
+        }
+
+        double delta = value - mean;
+        mean -= delta / size;
+        m2 -= delta * (value - mean);
+
+        if (m2 < 0) {
+            m2 = 0;
+        }
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getVariance() {
+        return size == 0 ? 0 : m2 / size;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void reset() {
+        head = 0;
+        size = 0;
+        mean = 0;
+        m2 = 0;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments.signals;
+
+// Rolling mean over the last period values, averaging over the partial window until it fills like ta4j's SMAIndicator
+public class SimpleMovingAverage {
+    public final int period;
+
+    private final double[] window;
+    private int head;
+    private int size;
+    private double sum;
+
+    public SimpleMovingAverage(int period) {
+        this.period = period;
+        this.window = new double[period];
+    }
+
+    public double update(double value) {
+        if (size == period) {
+            sum -= window[head];
+        } else {
+            size++;
+        }
+
+        window[head] = value;
+        sum += value;
+        head = (head + 1) % period;
+
+        return getValue();
+    }
+
+    public double getValue() {
+        return size == 0 ? 0 : sum / size;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void reset() {
+        head = 0;
+        size = 0;
+        sum = 0;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments.signals;
+
+import relativity.instruments.PriceMovement;
+import relativity.instruments.QuotePriceMovement;
+import relativity.instruments.types.InstrumentPriceStream;
+
+// Per instrument indicator state, advanced once per closed bar by InstrumentStatisticsService
+public class StreamingIndicators {
+    public static final int PERIOD = 14;
+    // Volume statistics cover the same trailing window the bar streams hold
+    public static final int VOLUME_PERIOD = InstrumentPriceStream.DEFAULT_CAPACITY;
+
+    public WilderRSI rsi = new WilderRSI(PERIOD);
+    public AverageTrueRange atr = new AverageTrueRange(PERIOD);
+    public SimpleMovingAverage sma = new SimpleMovingAverage(PERIOD);
+    public ExponentialMovingAverage ema = new ExponentialMovingAverage(PERIOD);
+    public RollingVariance variance = new RollingVariance(PERIOD);
+    public VolumeWeightedAveragePrice vwap = new VolumeWeightedAveragePrice(0);
+
+    public RollingOrderStatistics volume = new RollingOrderStatistics(VOLUME_PERIOD);
+    public SimpleMovingAverage fiveMinuteVolume = new SimpleMovingAverage(5 * 60);
+    public SimpleMovingAverage tenMinuteVolume = new SimpleMovingAverage(10 * 60);
+    public SimpleMovingAverage bidVolume = new SimpleMovingAverage(VOLUME_PERIOD);
+    public SimpleMovingAverage askVolume = new SimpleMovingAverage(VOLUME_PERIOD);
+
+    // Advanced once per minute bar from the roll up
+    public WilderRSI minuteRsi = new WilderRSI(PERIOD);
+
+    public void update(PriceMovement price) {
+        rsi.update(price.close);
+        atr.update(price.high, price.low, price.close);
+        sma.update(price.close);
+        ema.update(price.close);
+        variance.update(price.close);
+        vwap.update(price.high, price.low, price.close, price.volume);
+        volume.update(price.volume);
+        fiveMinuteVolume.update(price.volume);
+        tenMinuteVolume.update(price.volume);
+    }
+
+    public void updateMinute(PriceMovement price) {
+        minuteRsi.update(price.close);
+    }
+
+    public void updateQuote(QuotePriceMovement quote) {
+        bidVolume.update(quote.bidVolume);
+        askVolume.update(quote.askVolume);
+    }
+
+    public void reset() {
+        rsi.reset();
+        atr.reset();
+        sma.reset();
+        ema.reset();
+        variance.reset();
+        vwap.reset();
+        volume.reset();
+        fiveMinuteVolume.reset();
+        tenMinuteVolume.reset();
+        bidVolume.reset();
+        askVolume.reset();
+        minuteRsi.reset();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments.signals;
+
+// Volume weighted average of the typical price (high + low + close) / 3, the same price ta4j's VWAPIndicator uses.
+// A period of 0 accumulates over the whole session instead of a sliding window.
+public class VolumeWeightedAveragePrice {
+    public final int period;
+
+    private final double[] priceVolumes;
+    private final long[] volumes;
+    private int head;
+    private int size;
+    private double priceVolumeSum;
+    private long volumeSum;
+
+    public VolumeWeightedAveragePrice(int period) {
+        this.period = period;
+        this.priceVolumes = new double[Math.max(period, 1)];
+        this.volumes = new long[Math.max(period, 1)];
+    }
+
+    public double update(double high, double low, double close, long volume) {
+        double priceVolume = ((high + low + close) / 3) * volume;
+
+        if (period > 0) {
+            if (size == period) {
+                priceVolumeSum -= priceVolumes[head];
+                volumeSum -= volumes[head];
+            } else {
+                size++;
+            }
+
+            priceVolumes[head] = priceVolume;
+            volumes[head] = volume;
+            head = (head + 1) % period;
+        }
+
+        priceVolumeSum += priceVolume;
+        volumeSum += volume;
+
+        return getValue();
+    }
+
+    public double getValue() {
+        return volumeSum == 0 ? 0 : priceVolumeSum / volumeSum;
+    }
+
+    public long getVolume() {
+        return volumeSum;
+    }
+
+    public void reset() {
+        head = 0;
+        size = 0;
+        priceVolumeSum = 0;
+        volumeSum = 0;
+    }
+}
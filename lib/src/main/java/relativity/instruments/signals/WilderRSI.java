@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments.signals;
+
+// Wilder's RSI, the same smoothing as ta4j's RSIIndicator (MMA with alpha 1 / period seeded with the first value)
+public class WilderRSI {
+    public final int period;
+
+    private double averageGain;
+    private double averageLoss;
+    private double previousClose;
+    private long count;
+
+    public WilderRSI(int period) {
+        this.period = period;
+    }
+
+    public double update(double close) {
+        double gain = 0;
+        double loss = 0;
+
+        if (count > 0) {
+            double change = close - previousClose;
+
+            if (change > 0) {
+                gain = change;
+            } else {
+                loss = -change;
+            }
+        }
+
+        if (count == 0) {
+            averageGain = gain;
+            averageLoss = loss;
+        } else {
+            averageGain += (gain - averageGain) / period;
+            averageLoss += (loss - averageLoss) / period;
+        }
+
+        previousClose = close;
+        count++;
+
+        return getValue();
+    }
+
+    public double getValue() {
+        if (averageLoss == 0) {
+            return averageGain == 0 ? 0 : 100;
+        }
+
+        double relativeStrength = averageGain / averageLoss;
+
+        return 100 - (100 / (1 + relativeStrength));
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void reset() {
+        averageGain = 0;
+        averageLoss = 0;
+        previousClose = 0;
+        count = 0;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments.types;
+
+/**
+ * Fixed capacity ring of primitive floats.
+ * Index 0 is the oldest value still held and size() - 1 the latest, so the
+ * List style get(size() - 2) reads keep working. Once the ring is full every
+ * add overwrites the oldest value in place, nothing is shifted or boxed.
+ * Windows over the last n values are read in place through get or the
+ * sum/min/max helpers rather than copied out.
+ */
+public class FloatRingBuffer {
+    private final float[] values;
+    private final int mask;
+    private int head = 0;
+    private int size = 0;
+
+    public FloatRingBuffer(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new Error("Ring buffer capacity must be a power of two");
+        }
+
+        this.values = new float[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public void add(float value) {
+        values[head] = value;
+        head = (head + 1) & mask;
+
+        if (size < values.length) {
+            size++;
+        }
+    }
+
+    public float get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+
+        return values[(head - size + index) & mask];
+    }
+
+    public float getLast() {
+        return getLast(0);
+    }
+
+    /**
+     * @param barsAgo 0 for the latest value, 1 for the one before it
+     */
+    public float getLast(int barsAgo) {
+        return get(size - 1 - barsAgo);
+    }
+
+    public float sum(int count) {
+        float sum = 0;
+
+        for (int i = size - Math.min(count, size); i < size; i++) {
+            sum += values[(head - size + i) & mask];
+        }
+
+        return sum;
+    }
+
+    public float max(int count) {
+        float max = Float.NEGATIVE_INFINITY;
+
+        for (int i = size - Math.min(count, size); i < size; i++) {
+            max = Math.max(max, values[(head - size + i) & mask]);
+        }
+
+        return max;
+    }
+
+    public float min(int count) {
+        float min = Float.POSITIVE_INFINITY;
+
+        for (int i = size - Math.min(count, size); i < size; i++) {
+            min = Math.min(min, values[(head - size + i) & mask]);
+        }
+
+        return min;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+}
@@ -20,6 +20,8 @@ package relativity.instruments.types;
 import java.util.Date;
 
 public class Instrument {
+    // SymbolTable id, also the row in the columnar state store
+    public int id = -1;
     public String symbol;
     public String name;
     public String description;
@@ -31,6 +33,12 @@ public class Instrument {
     public InstrumentStatistics statistics = new InstrumentStatistics();
     public InstrumentPricing pricing = new InstrumentPricing();
     public InstrumentQuoteStatistics quoteStatistics = new InstrumentQuoteStatistics();
+    // Consistent per bar view for readers that are not on the symbol's shard
+    public final InstrumentSnapshots snapshots = new InstrumentSnapshots();
     public Date createdAt = new Date();
     public long updatedAt;
+
+    public InstrumentSnapshot getSnapshot() {
+        return snapshots.getLatest();
+    }
 }
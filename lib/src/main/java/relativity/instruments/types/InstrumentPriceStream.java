@@ -17,15 +17,42 @@
 
 package relativity.instruments.types;
 
-import java.util.ArrayList;
-
+// Structure of arrays bar history, one primitive ring per field sharing the same length
 public class InstrumentPriceStream {
-    public ArrayList<Float> open = new ArrayList<>();
-    public ArrayList<Float> close = new ArrayList<>();
-    public ArrayList<Float> high = new ArrayList<>();
-    public ArrayList<Float> low = new ArrayList<>();
-    public ArrayList<Long> volume = new ArrayList<>();
-    public ArrayList<Long> time = new ArrayList<>();
+    public static final int DEFAULT_CAPACITY = 256;
+
+    public final FloatRingBuffer open;
+    public final FloatRingBuffer close;
+    public final FloatRingBuffer high;
+    public final FloatRingBuffer low;
+    public final LongRingBuffer volume;
+    public final LongRingBuffer time;
+
+    public InstrumentPriceStream() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public InstrumentPriceStream(int capacity) {
+        open = new FloatRingBuffer(capacity);
+        close = new FloatRingBuffer(capacity);
+        high = new FloatRingBuffer(capacity);
+        low = new FloatRingBuffer(capacity);
+        volume = new LongRingBuffer(capacity);
+        time = new LongRingBuffer(capacity);
+    }
+
+    public void add(float open, float high, float low, float close, long volume, long time) {
+        this.open.add(open);
+        this.high.add(high);
+        this.low.add(low);
+        this.close.add(close);
+        this.volume.add(volume);
+        this.time.add(time);
+    }
+
+    public int size() {
+        return close.size();
+    }
 
     public void reset() {
         open.clear();
@@ -18,11 +18,13 @@
 package relativity.instruments.types;
 
 import relativity.instruments.PriceMovement;
+import relativity.instruments.signals.StreamingIndicators;
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.BaseBarSeriesBuilder;
 import org.ta4j.core.num.DoubleNum;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 
 public class InstrumentPricing {
     public Float price;
@@ -30,10 +32,13 @@ public class InstrumentPricing {
     public Float vwapRatio;
     // Math.abs(price - vwap) / vwap
 
-    public ArrayList<Float> trailingPrices = new ArrayList<>();
+    public FloatRingBuffer trailingPrices = new FloatRingBuffer(InstrumentPriceStream.DEFAULT_CAPACITY);
     public ArrayList<PriceMovement> minutePrices = new ArrayList<>();
     public InstrumentPriceStream priceStreams = new InstrumentPriceStream();
-    public InstrumentPriceStream minutePriceStreams = new InstrumentPriceStream();
+    // Bars rolled up from the second bars by BarRollup, the MINUTE stream is minutePriceStreams
+    public final EnumMap<TimeframeEnum, InstrumentPriceStream> timeframePriceStreams = new EnumMap<>(TimeframeEnum.class);
+    public InstrumentPriceStream minutePriceStreams;
+    public StreamingIndicators indicators = new StreamingIndicators();
 
     public BarSeries tradeSeries = new BaseBarSeriesBuilder()
             .withName("second")
@@ -64,6 +69,18 @@ public class InstrumentPricing {
     public InstrumentPriceStream quoteAskPriceStreams = new InstrumentPriceStream();
     public InstrumentPriceStream quoteBidPriceStreams = new InstrumentPriceStream();
 
+    public InstrumentPricing() {
+        for (TimeframeEnum timeframe : TimeframeEnum.values()) {
+            timeframePriceStreams.put(timeframe, new InstrumentPriceStream(timeframe.capacity));
+        }
+
+        minutePriceStreams = timeframePriceStreams.get(TimeframeEnum.MINUTE);
+    }
+
+    public InstrumentPriceStream getPriceStream(TimeframeEnum timeframe) {
+        return timeframePriceStreams.get(timeframe);
+    }
+
     public void reset() {
         trailingPrices.clear();
         minutePrices.clear();
@@ -72,9 +89,14 @@ public class InstrumentPricing {
         quoteBidPrices.clear();
 
         priceStreams.reset();
-        minutePriceStreams.reset();
+
+        for (InstrumentPriceStream stream : timeframePriceStreams.values()) {
+            stream.reset();
+        }
+
         quoteAskPriceStreams.reset();
         quoteBidPriceStreams.reset();
+        indicators.reset();
 
         tradeSeries = new BaseBarSeriesBuilder()
             .withName("second")
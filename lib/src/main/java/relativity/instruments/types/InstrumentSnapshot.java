@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments.types;
+
+/**
+ * What readers off the symbol's shard see of an instrument for one closed bar.
+ * Filled by InstrumentStatisticsService on the shard and published whole, so
+ * fields are never read half written. Snapshots are recycled by
+ * InstrumentSnapshots, copy what is needed rather than holding on to one.
+ * Statistics not computed yet are NaN.
+ */
+public class InstrumentSnapshot {
+    public int id = -1;
+    public String symbol;
+    // Bars published for the instrument, a reader can compare this to see if the view moved
+    public long sequence;
+    public long time;
+    public long updatedAt;
+
+    // Latest second bar
+    public float open;
+    public float high;
+    public float low;
+    public float close;
+    public long volume;
+
+    // The bar before, the latest bar again when there is only one
+    public float previousHigh;
+    public float previousLow;
+    public long previousVolume;
+    public int barCount;
+
+    public float vwap = Float.NaN;
+    public float rsi = Float.NaN;
+    public float sma = Float.NaN;
+    public float ema = Float.NaN;
+
+    public float atr = Float.NaN;
+    public float atrPercentage = Float.NaN;
+    public float standardDeviationPercentage = Float.NaN;
+
+    public float volumeAverage = Float.NaN;
+    public float volumeMinuteAverage = Float.NaN;
+
+    public MovementEnum movement;
+    public float percentChange = Float.NaN;
+    public MovementEnum bidMovement;
+    public MovementEnum askMovement;
+    public float buyRatio;
+    public float sellRatio;
+
+    public boolean hasPreviousBar() {
+        return barCount > 1;
+    }
+}
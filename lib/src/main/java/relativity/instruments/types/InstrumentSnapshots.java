@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments.types;
+
+/**
+ * Publishes an instrument's snapshots through one volatile reference. The
+ * writer is the symbol's shard, it fills the next slot of a small ring and
+ * swaps it in, so publishing allocates nothing. A slot is only refilled after
+ * SLOTS - 1 newer bars, seconds later, which readers that copy out what they
+ * need right away never reach.
+ */
+public class InstrumentSnapshots {
+    static final int SLOTS = 8;
+
+    private final InstrumentSnapshot[] slots = new InstrumentSnapshot[SLOTS];
+    private volatile InstrumentSnapshot latest;
+    private long sequence = 0;
+
+    public InstrumentSnapshots() {
+        for (int i = 0; i < SLOTS; i++) {
+            slots[i] = new InstrumentSnapshot();
+        }
+    }
+
+    /**
+     * Slot to fill for the next bar, never the published one. Writer only.
+     */
+    public InstrumentSnapshot next() {
+        InstrumentSnapshot snapshot = slots[(int) ((sequence + 1) % SLOTS)];
+        snapshot.sequence = sequence + 1;
+
+        return snapshot;
+    }
+
+    /**
+     * Makes a filled snapshot visible to readers. Writer only.
+     */
+    public void publish(InstrumentSnapshot snapshot) {
+        sequence = snapshot.sequence;
+        latest = snapshot;
+    }
+
+    /**
+     * The latest published snapshot, null until the first bar
+     */
+    public InstrumentSnapshot getLatest() {
+        return latest;
+    }
+
+    public void reset() {
+        latest = null;
+    }
+}
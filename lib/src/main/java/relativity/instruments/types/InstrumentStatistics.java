@@ -27,6 +27,8 @@ public class InstrumentStatistics {
     public Float resistance;
     public Float support;
     public Float dayChange;
+    // StatisticsDemand mask of the metrics computed for the latest bar
+    public int computedMetrics;
 
     public InstrumentTrend trend = new InstrumentTrend();
     public InstrumentIndicators indicators = new InstrumentIndicators();
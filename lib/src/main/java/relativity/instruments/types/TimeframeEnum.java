@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments.types;
+
+// Bar sizes rolled up from the one second bars, with how many bars of each are kept
+public enum TimeframeEnum {
+    FIVE_SECONDS("5s", 5, 256),
+    FIFTEEN_SECONDS("15s", 15, 256),
+    MINUTE("1m", 60, 512),
+    FIVE_MINUTES("5m", 5 * 60, 128),
+    FIFTEEN_MINUTES("15m", 15 * 60, 64),
+    HOUR("1h", 60 * 60, 32);
+
+    public final String value;
+    public final int seconds;
+    // Ring capacity, a power of two
+    public final int capacity;
+
+    TimeframeEnum(String value, int seconds, int capacity) {
+        this.value = value;
+        this.seconds = seconds;
+        this.capacity = capacity;
+    }
+}
@@ -23,15 +23,20 @@ import relativity.brokers.paper.OrderManager;
 import relativity.brokers.paper.PositionManager;
 import relativity.brokers.types.*;
 import relativity.instruments.InstrumentManager;
+import relativity.instruments.StatisticsDemand;
 import relativity.instruments.signals.MarketValueService;
+import relativity.workers.ExecutorProfileEnum;
 import relativity.workers.ThreadPool;
+import relativity.workers.TimingWheel;
 import org.tinylog.Logger;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Timer;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 public abstract class BaseStrategy {
     public UUID id;
@@ -49,9 +54,9 @@ public abstract class BaseStrategy {
      */
     public ArrayList<String> tradingSymbols = new ArrayList<>();
 
-    // Timer is used for tracking time in the strategy
+    // Timers are used for tracking time in the strategy
     // And ending the strategy if it runs too long
-    public Timer timer = new Timer();
+    public final List<TimingWheel.Timeout> timers = Collections.synchronizedList(new ArrayList<>());
 
     /**************************************************************************
      * Injected Dependencies
@@ -76,6 +81,41 @@ public abstract class BaseStrategy {
         id = UUID.randomUUID();
     }
 
+    /**
+     * StatisticsDemand mask of the metrics this strategy reads for its symbol while it is active
+     */
+    public int getRequiredStatistics() {
+        return StatisticsDemand.NONE;
+    }
+
+    /**************************************************************************
+     * Timers
+     *************************************************************************/
+
+    public TimingWheel.Timeout schedule(Runnable task, long delayMillis) {
+        TimingWheel.Timeout timeout = pool.timingWheel.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        timers.add(timeout);
+
+        return timeout;
+    }
+
+    public TimingWheel.Timeout scheduleAtFixedRate(Runnable task, long initialDelayMillis, long periodMillis) {
+        TimingWheel.Timeout timeout = pool.timingWheel.scheduleAtFixedRate(task, initialDelayMillis, periodMillis, TimeUnit.MILLISECONDS);
+        timers.add(timeout);
+
+        return timeout;
+    }
+
+    public void cancelTimers() {
+        synchronized (timers) {
+            for (TimingWheel.Timeout timeout : timers) {
+                timeout.cancel();
+            }
+
+            timers.clear();
+        }
+    }
+
     /**************************************************************************
      * Runnable Methods for StrategyHandlers
      *************************************************************************/
@@ -261,8 +301,8 @@ public abstract class BaseStrategy {
                         Order replaceOrder = orderManager.replaceOrder(closeOrder, orderOptions);
 
                         if (replaceOrder != null) {
-                            position.orders.add(replaceOrder);
-                            position.orders.remove(closeOrder);
+                            positionManager.addOrderToPosition(position, replaceOrder);
+                            positionManager.removeOrderFromPosition(position, closeOrder);
                             state.ordersSubmitted = true;
                             state.orders.add(replaceOrder);
                         }
@@ -316,7 +356,7 @@ public abstract class BaseStrategy {
                     Order order = orderManager.createOrderIfNotExists(orderOptions);
 
                     if (order != null) {
-                        position.orders.add(order);
+                        positionManager.addOrderToPosition(position, order);
                         state.ordersSubmitted = true;
                         state.orders.add(order);
                     }
@@ -378,8 +418,8 @@ public abstract class BaseStrategy {
                         Order replaceOrder = orderManager.replaceOrder(closeOrder, orderOptions);
 
                         if (replaceOrder != null) {
-                            position.orders.add(replaceOrder);
-                            position.orders.remove(closeOrder);
+                            positionManager.addOrderToPosition(position, replaceOrder);
+                            positionManager.removeOrderFromPosition(position, closeOrder);
                             state.ordersSubmitted = true;
                             state.orders.add(replaceOrder);
                         }
@@ -436,7 +476,7 @@ public abstract class BaseStrategy {
                     Order order = orderManager.createOrderIfNotExists(orderOptions);
 
                     if (order != null) {
-                        position.orders.add(order);
+                        positionManager.addOrderToPosition(position, order);
                         state.ordersSubmitted = true;
                         state.orders.add(order);
                     }
@@ -479,7 +519,7 @@ public abstract class BaseStrategy {
                     }
 
                     if (Math.abs(price - order.limitPrice) > 0.0075) {
-                        pool.runAsync(() -> orderManager.cancelOrder(order));
+                        pool.runAsync(ExecutorProfileEnum.VIRTUAL, () -> orderManager.cancelOrder(order));
 
                         Logger.info("Cancelling order " + order.symbol + " because it is old. Price: " + price + " Limit: " + order.limitPrice + " Millisecond difference: " + millisecondDifference);
                     }
@@ -700,7 +740,7 @@ public abstract class BaseStrategy {
             ArrayList<Order> orders = orderManager.findOrdersForStrategy(id);
 
             for (Order order : orders) {
-                pool.runAsync(() -> orderManager.cancelOrder(order));
+                pool.runAsync(ExecutorProfileEnum.VIRTUAL, () -> orderManager.cancelOrder(order));
             }
 
             return;
@@ -725,7 +765,7 @@ public abstract class BaseStrategy {
         ArrayList<Position> positions = positionManager.getPositionsForStrategy(id);
 
         for (Position position : positions) {
-            pool.runAsync(() -> positionManager.exitPosition(position, false));
+            pool.runAsync(ExecutorProfileEnum.VIRTUAL, () -> positionManager.exitPosition(position, false));
         }
     }
 
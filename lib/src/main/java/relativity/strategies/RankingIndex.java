@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.strategies;
+
+import java.util.Arrays;
+
+/**
+ * Cross sectional ranking of one score per symbol, keyed by SymbolTable id.
+ * Every scored symbol sits in two indexed binary heaps, one with the highest
+ * score at the root and one with the lowest, and each heap tracks where every
+ * id sits so a changed score is sifted in place in O(log n).
+ *
+ * The top or bottom k are read without disturbing the heaps by walking down
+ * from the root and keeping a frontier of at most k + 1 candidates, so a
+ * query costs O(k^2) on k alone, whatever the size of the universe.
+ * Equal scores are ordered by the lower id first, so ties are stable and
+ * never collapse two symbols into one entry.
+ */
+public class RankingIndex {
+    private double[] scores;
+    private final Heap highest;
+    private final Heap lowest;
+
+    public RankingIndex() {
+        this(1024);
+    }
+
+    public RankingIndex(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+
+        scores = new double[capacity];
+        highest = new Heap(true, capacity);
+        lowest = new Heap(false, capacity);
+    }
+
+    /**
+     * Sets the symbol's score, a NaN score removes it from the ranking
+     */
+    public synchronized void update(int id, double score) {
+        if (Double.isNaN(score)) {
+            remove(id);
+
+            return;
+        }
+
+        ensureCapacity(id);
+        scores[id] = score;
+
+        highest.update(id);
+        lowest.update(id);
+    }
+
+    public synchronized void remove(int id) {
+        if (id >= scores.length) {
+            return;
+        }
+
+        highest.remove(id);
+        lowest.remove(id);
+    }
+
+    /**
+     * @param ids Filled with the ids of the highest scores, best first
+     * @return Number of ids written
+     */
+    public synchronized int top(int k, int[] ids) {
+        return highest.first(k, ids);
+    }
+
+    /**
+     * @param ids Filled with the ids of the lowest scores, worst first
+     * @return Number of ids written
+     */
+    public synchronized int bottom(int k, int[] ids) {
+        return lowest.first(k, ids);
+    }
+
+    public synchronized double getScore(int id) {
+        return id < scores.length && highest.contains(id) ? scores[id] : Double.NaN;
+    }
+
+    public synchronized int size() {
+        return highest.size;
+    }
+
+    public synchronized void clear() {
+        highest.clear();
+        lowest.clear();
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < scores.length) {
+            return;
+        }
+
+        int capacity = Math.max(scores.length * 2, id + 1);
+
+        scores = Arrays.copyOf(scores, capacity);
+        highest.grow(capacity);
+        lowest.grow(capacity);
+    }
+
+    private class Heap {
+        private final boolean descending;
+        private int[] heap;
+        // Heap slot for each id, -1 when the id is not ranked
+        private int[] positions;
+        private int size = 0;
+
+        Heap(boolean descending, int capacity) {
+            this.descending = descending;
+            this.heap = new int[capacity];
+            this.positions = new int[capacity];
+
+            Arrays.fill(positions, -1);
+        }
+
+        // True when a ranks ahead of b
+        boolean ahead(int a, int b) {
+            double scoreA = scores[a];
+            double scoreB = scores[b];
+
+            if (scoreA != scoreB) {
+                return descending ? scoreA > scoreB : scoreA < scoreB;
+            }
+
+            return a < b;
+        }
+
+        boolean contains(int id) {
+            return positions[id] >= 0;
+        }
+
+        void update(int id) {
+            int position = positions[id];
+
+            if (position < 0) {
+                position = size++;
+                heap[position] = id;
+                positions[id] = position;
+            }
+
+            siftDown(siftUp(position));
+        }
+
+        void remove(int id) {
+            int position = positions[id];
+
+            if (position < 0) {
+                return;
+            }
+
+            int last = heap[--size];
+            positions[id] = -1;
+
+            if (position == size) {
+                return;
+            }
+
+            heap[position] = last;
+            positions[last] = position;
+
+            siftDown(siftUp(position));
+        }
+
+        int siftUp(int position) {
+            int id = heap[position];
+
+            while (position > 0) {
+                int parent = (position - 1) >> 1;
+
+                if (!ahead(id, heap[parent])) {
+                    break;
+                }
+
+                move(heap[parent], position);
+                position = parent;
+            }
+
+            move(id, position);
+
+            return position;
+        }
+
+        void siftDown(int position) {
+            int id = heap[position];
+
+            while (true) {
+                int child = (position << 1) + 1;
+
+                if (child >= size) {
+                    break;
+                }
+
+                if (child + 1 < size && ahead(heap[child + 1], heap[child])) {
+                    child++;
+                }
+
+                if (!ahead(heap[child], id)) {
+                    break;
+                }
+
+                move(heap[child], position);
+                position = child;
+            }
+
+            move(id, position);
+        }
+
+        void move(int id, int position) {
+            heap[position] = id;
+            positions[id] = position;
+        }
+
+        int first(int k, int[] ids) {
+            int limit = Math.min(Math.min(k, ids.length), size);
+
+            if (limit == 0) {
+                return 0;
+            }
+
+            // Heap slots that could be next, the best of them always is
+            int[] frontier = new int[limit + 1];
+            int frontierSize = 1;
+            int count = 0;
+
+            frontier[0] = 0;
+
+            while (count < limit) {
+                int best = 0;
+
+                for (int i = 1; i < frontierSize; i++) {
+                    if (ahead(heap[frontier[i]], heap[frontier[best]])) {
+                        best = i;
+                    }
+                }
+
+                int slot = frontier[best];
+                ids[count++] = heap[slot];
+                frontier[best] = frontier[--frontierSize];
+
+                int child = (slot << 1) + 1;
+
+                for (int i = child; i <= child + 1 && i < size && frontierSize < frontier.length; i++) {
+                    frontier[frontierSize++] = i;
+                }
+            }
+
+            return count;
+        }
+
+        void grow(int capacity) {
+            int previous = positions.length;
+
+            heap = Arrays.copyOf(heap, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+
+            Arrays.fill(positions, previous, capacity, -1);
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                positions[heap[i]] = -1;
+            }
+
+            size = 0;
+        }
+    }
+}
@@ -22,8 +22,11 @@ import relativity.brokers.paper.OrderManager;
 import relativity.brokers.paper.PositionManager;
 import relativity.brokers.types.PositionTypeEnum;
 import relativity.instruments.InstrumentManager;
+import relativity.instruments.InstrumentQuoteAndTradeManager;
+import relativity.instruments.SymbolIndexedArray;
 import relativity.instruments.types.Instrument;
 import relativity.strategies.active.MoverStrategy;
+import relativity.workers.ExecutorProfileEnum;
 import relativity.workers.ThreadPool;
 
 import java.time.LocalDateTime;
@@ -33,6 +36,8 @@ import org.tinylog.Logger;
 
 public class StrategyManager {
     ConcurrentHashMap<String, MoverStrategy> activeStrategies = new ConcurrentHashMap<>();
+    // Same strategies as activeStrategies by SymbolTable id, checked on every bar
+    final SymbolIndexedArray<MoverStrategy> activeStrategiesBySymbolId = new SymbolIndexedArray<>();
     ConcurrentHashMap<String, MoverStrategy> runningStrategies = new ConcurrentHashMap<>();
     ConcurrentHashMap<String, MoverStrategy> waitingStrategies = new ConcurrentHashMap<>();
     int maxConcurrentStrategies = 20;
@@ -42,6 +47,7 @@ public class StrategyManager {
      * Injected Dependencies
      *************************************************************************/
     public InstrumentManager instrumentManager;
+    public InstrumentQuoteAndTradeManager instrumentQuoteAndTradeManager;
     public OrderManager orderManager;
     public AccountManager accountManager;
     public PositionManager positionManager;
@@ -51,10 +57,10 @@ public class StrategyManager {
     float averageNumberOfStrategies = 0;
 
     public void newAnalysis(Instrument instrument) {
-        if (activeStrategies.containsKey(instrument.symbol)) {
-            MoverStrategy strategy = activeStrategies.get(instrument.symbol);
+        MoverStrategy strategy = activeStrategiesBySymbolId.get(instrument.id);
 
-            pool.runAsync(() -> checkStrategy(strategy, instrument));
+        if (strategy != null) {
+            pool.runAsync(ExecutorProfileEnum.PLATFORM, () -> checkStrategy(strategy, instrument));
         }
     }
 
@@ -118,6 +124,9 @@ public class StrategyManager {
 
             // Fully activate new strategy
             activeStrategies.put(instrument.symbol, strategy);
+            activeStrategiesBySymbolId.set(instrument.id, strategy);
+            instrumentManager.statisticsDemand.require(instrument.id, strategy.getRequiredStatistics());
+            watchSymbol(instrument.symbol);
             strategy.initialize(activeStrategies.size());
             checkStrategy(strategy, instrument);
 //        } catch (ClassNotFoundException | NoSuchMethodException | InvocationTargetException | InstantiationException | IllegalAccessException e) {
@@ -151,7 +160,9 @@ public class StrategyManager {
     }
 
     public void removeStrategy(BaseStrategy strategy) {
-        activeStrategies.remove(strategy.symbol);
+        strategy.cancelTimers();
+        releaseStrategy(strategy);
+        unwatchSymbol(strategy.symbol);
         strategyRunner.removeMethodMap(strategy);
         runningStrategies.remove(strategy.id);
 
@@ -176,6 +187,10 @@ public class StrategyManager {
 
                     waitingStrategies.remove(nextStrategy.symbol);
                     activeStrategies.put(nextStrategy.symbol, nextStrategy);
+                    int symbolId = instrumentManager.symbolTable.getId(nextStrategy.symbol);
+                    activeStrategiesBySymbolId.set(symbolId, nextStrategy);
+                    instrumentManager.statisticsDemand.require(symbolId, nextStrategy.getRequiredStatistics());
+                    watchSymbol(nextStrategy.symbol);
 
                     Logger.info("Activated waiting strategy " + nextStrategy.symbol + " Strategies left: " + activeStrategies.size());
 
@@ -187,7 +202,14 @@ public class StrategyManager {
     }
 
     public void removeStrategy(UUID strategyId) {
-        activeStrategies.remove(strategyId);
+        BaseStrategy strategy = getStrategy(strategyId);
+
+        if (strategy != null) {
+            removeStrategy(strategy);
+
+            return;
+        }
+
         strategyRunner.removeMethodMap(strategyId);
         runningStrategies.remove(strategyId);
     }
@@ -205,4 +227,31 @@ public class StrategyManager {
     public BaseStrategy getStrategy(String symbol) {
         return activeStrategies.get(symbol);
     }
+
+    /**
+     * Drops the symbol's strategy from the active indexes, releasing the statistics
+     * it declared only when one was removed so a release is never repeated
+     */
+    private void releaseStrategy(BaseStrategy strategy) {
+        int symbolId = instrumentManager.symbolTable.findId(strategy.symbol);
+        MoverStrategy removed = activeStrategies.remove(strategy.symbol);
+
+        if (removed != null) {
+            instrumentManager.statisticsDemand.release(symbolId, removed.getRequiredStatistics());
+        }
+
+        activeStrategiesBySymbolId.remove(symbolId);
+    }
+
+    private void watchSymbol(String symbol) {
+        if (instrumentQuoteAndTradeManager != null) {
+            instrumentQuoteAndTradeManager.watchSymbol(symbol);
+        }
+    }
+
+    private void unwatchSymbol(String symbol) {
+        if (instrumentQuoteAndTradeManager != null) {
+            instrumentQuoteAndTradeManager.unwatchSymbol(symbol);
+        }
+    }
 }
@@ -18,7 +18,7 @@
 package relativity.strategies;
 
 import relativity.brokers.MarketHoursService;
-import relativity.brokers.types.Account;
+import relativity.brokers.paper.AccountLedger;
 import relativity.instruments.types.Instrument;
 import org.tinylog.Logger;
 
@@ -28,33 +28,36 @@ public class StrategyPositionSizing {
         boolean extendedHours = MarketHoursService.isInExtendedHours();
 
         Instrument instrument = strategy.instrumentManager.getInstrument(strategy.symbol);
-        Account account = strategy.accountManager.getAccount(strategy.accountId);
+        // One snapshot so cash and margin come from the same ledger update
+        AccountLedger.Balances balances = strategy.accountManager.getBalances(strategy.accountId);
+        float cashBalance = balances.getCash();
+        float marginBalance = balances.getMargin();
 
-        if (account.cashBalance <= 100) {
+        if (cashBalance <= 100) {
             Logger.info("Not enough cash to place a trade");
 
             return 0;
         }
 
-        float totalCash = account.cashBalance + strategy.accountManager.getCashBalanceFromPositionsAndOrders(account.id);
-        float currentBuyingPower = strategy.accountManager.calculateBuyingPower(account.id);
+        float totalCash = balances.getTotalCash();
+        float currentBuyingPower = balances.getBuyingPower();
 
         double cashToUse = extendedHours
             ? totalCash * strategy.config.balancePercentageToUsePreMarket
             : totalCash * strategy.config.balancePercentageToUse;
 
-        if (account.cashBalance < cashToUse) {
-            cashToUse = account.cashBalance - 30;
+        if (cashBalance < cashToUse) {
+            cashToUse = cashBalance - 30;
         }
 
         double marginBuyingPower = 0.0f;
 
         if (strategy.config.marginPercent > 0) {
-            double marginToAdd = (account.marginBalance + account.outstandingMarginBalance) * strategy.config.marginPercent;
+            double marginToAdd = (marginBalance + balances.getOutstandingMargin()) * strategy.config.marginPercent;
 
-            marginBuyingPower += marginToAdd <= account.marginBalance
+            marginBuyingPower += marginToAdd <= marginBalance
                 ? marginToAdd
-                : account.marginBalance - 30;
+                : marginBalance - 30;
         }
 
         double totalBuyingPower = cashToUse + marginBuyingPower;
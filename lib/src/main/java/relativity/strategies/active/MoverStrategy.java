@@ -20,6 +20,8 @@ package relativity.strategies.active;
 import relativity.brokers.types.Position;
 import relativity.brokers.types.PositionTypeEnum;
 import relativity.instruments.PriceMovement;
+import relativity.instruments.StatisticsDemand;
+import relativity.instruments.StatisticsMetricEnum;
 import relativity.instruments.signals.MarketValueService;
 import relativity.instruments.signals.MomentumService;
 import relativity.instruments.types.MovementEnum;
@@ -35,7 +37,6 @@ import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.TimerTask;
 import org.tinylog.Logger;
 
 public class MoverStrategy extends BaseStrategy {
@@ -115,31 +116,19 @@ public class MoverStrategy extends BaseStrategy {
         }
     }
 
+    @Override
+    public int getRequiredStatistics() {
+        return StatisticsDemand.mask(StatisticsMetricEnum.RSI, StatisticsMetricEnum.VOLATILITY, StatisticsMetricEnum.VOLUME);
+    }
+
     public void initialize(int numberOfStrategies) {
 
         /******************************
          * Timers
          * ****************************/
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                preRun();
-            }
-        }, config.cancelEnterPositionOrderTimeThreshold);
-
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                preRun();
-            }
-        }, config.maximumPositionDurationOfStrategy);
-
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                exitStrategy("Maximum strategy duration reached");
-            }
-        }, Math.round(1000 * 60 * 1.5), 10_000); // 2 minutes and then repeat
+        schedule(this::preRun, config.cancelEnterPositionOrderTimeThreshold);
+        schedule(this::preRun, config.maximumPositionDurationOfStrategy);
+        scheduleAtFixedRate(() -> exitStrategy("Maximum strategy duration reached"), Math.round(1000 * 60 * 1.5), 10_000); // 2 minutes and then repeat
 
         /******************************
          * Dynamic Sizing
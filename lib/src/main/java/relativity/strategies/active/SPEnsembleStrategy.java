@@ -17,31 +17,36 @@
 
 package relativity.strategies.active;
 
+import relativity.events.EventDispatchEnum;
+import relativity.events.EventService;
+import relativity.events.EventSubscription;
+import relativity.events.EventTypesEnum;
+import relativity.events.types.InstrumentMinuteAnalysisEvent;
+import relativity.instruments.types.FloatRingBuffer;
 import relativity.instruments.types.Instrument;
 import relativity.strategies.MultiBaseStrategy;
+import relativity.strategies.RankingIndex;
+import relativity.workers.ExecutorProfileEnum;
 import relativity.workers.ThreadPool;
 
 import java.time.LocalTime;
-import java.util.Comparator;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.TimeUnit;
 
 public class SPEnsembleStrategy extends MultiBaseStrategy {
     public HashSet<String> symbols = new HashSet<>();
     public HashSet<String> spSymbols = new HashSet<>();
 
-    Comparator<Instrument> hourComparator = (instrument1, instrument2) -> compare(instrument1, instrument2, 61);
+    // Minute bars each ranking looks back over, including the latest one
+    static final int HOUR_BARS = 61;
+    static final int THIRTY_MINUTE_BARS = 31;
+    static final int FIFTEEN_MINUTE_BARS = 16;
 
-    Comparator<Instrument> thirtyMinutesComparator = (instrument1, instrument2) -> compare(instrument1, instrument2, 31);
-
-    Comparator<Instrument> fifteenMinutesComparator = (instrument1, instrument2) -> compare(instrument1, instrument2, 16);
-
-    public ConcurrentSkipListSet<Instrument> rankedHourList = new ConcurrentSkipListSet<>(hourComparator);
-    public ConcurrentSkipListSet<Instrument> rankedThirtyMinuteList = new ConcurrentSkipListSet<>(thirtyMinutesComparator);
-    public ConcurrentSkipListSet<Instrument> rankedFifteenMinuteList = new ConcurrentSkipListSet<>(fifteenMinutesComparator);
+    // Scored incrementally as each symbol's minute bar closes
+    public RankingIndex rankedHourList = new RankingIndex();
+    public RankingIndex rankedThirtyMinuteList = new RankingIndex();
+    public RankingIndex rankedFifteenMinuteList = new RankingIndex();
 
     public ConcurrentHashMap<String, SPSingleStrategy> activeStrategies = new ConcurrentHashMap<>();
 
@@ -53,12 +58,17 @@ public class SPEnsembleStrategy extends MultiBaseStrategy {
     public HashSet<String> bottomTenFifteenMinutes = new HashSet<>();
 
     private ThreadPool pool;
+    private EventService eventService;
+    // Keeps the rankings current from the minute analysis once initialized
+    private volatile EventSubscription subscription;
 
-    public SPEnsembleStrategy(ThreadPool pool) {
+    public SPEnsembleStrategy(ThreadPool pool, EventService eventService) {
         this.pool = pool;
+        this.eventService = eventService;
     }
 
     public void initialize() {
+        subscribe(eventService);
         resort();
 
         LocalTime now = LocalTime.now();
@@ -73,36 +83,71 @@ public class SPEnsembleStrategy extends MultiBaseStrategy {
         );
     }
 
+    /**
+     * Scores every symbol from its current minute bars, used to seed the rankings.
+     * Each symbol is scored on its shard, behind any minute bar already queued there.
+     */
     public void resort() {
         rankedHourList.clear();
         rankedThirtyMinuteList.clear();
         rankedFifteenMinuteList.clear();
 
-        // Re-add updated securities to each list
         for (String symbol : spSymbols) {
-            rankedHourList.add(instrumentManager.getInstrument(symbol));
-            rankedThirtyMinuteList.add(instrumentManager.getInstrument(symbol));
-            rankedFifteenMinuteList.add(instrumentManager.getInstrument(symbol));
+            pool.runForSymbol(symbol, () -> updateRankings(instrumentManager.getInstrument(symbol)));
+        }
+    }
+
+    /**
+     * Minute analysis is dispatched on the symbol's shard, after the bar has
+     * been appended to the instrument's minute stream. Called from initialize().
+     */
+    public EventSubscription subscribe(EventService eventService) {
+        if (subscription != null) {
+            return subscription;
         }
+
+        return subscription = eventService.subscribe(EventTypesEnum.INSTRUMENT_MINUTE_ANALYSIS, "spEnsembleStrategy.onMinuteBar", 50, EventDispatchEnum.SHARDED, ExecutorProfileEnum.PINNED,
+            (InstrumentMinuteAnalysisEvent event) -> onMinuteBar(event.instrument));
+    }
+
+    /**
+     * Rescores the symbol, run on the symbol's shard after its minute bar closes
+     * so the minute stream is not written while it is read
+     */
+    public void onMinuteBar(Instrument instrument) {
+        if (spSymbols.contains(instrument.symbol)) {
+            updateRankings(instrument);
+        }
+    }
+
+    public void updateRankings(Instrument instrument) {
+        rankedHourList.update(instrument.id, getScore(instrument, HOUR_BARS));
+        rankedThirtyMinuteList.update(instrument.id, getScore(instrument, THIRTY_MINUTE_BARS));
+        rankedFifteenMinuteList.update(instrument.id, getScore(instrument, FIFTEEN_MINUTE_BARS));
     }
 
-    public int compare(Instrument instrument1, Instrument instrument2, int size) {
-        float instrument1Last = instrument1.pricing.minutePriceStreams.close.getLast();
-        float instrument2Last = instrument2.pricing.minutePriceStreams.close.getLast();
+    /**
+     * Change over the lookback relative to the latest close,
+     * or NaN until there are enough minute bars to score
+     */
+    public double getScore(Instrument instrument, int size) {
+        FloatRingBuffer closes = instrument.pricing.minutePriceStreams.close;
 
-        if(instrument1Last == 0 || instrument2Last == 0) {
-            // Handle divide by zero
+        if (closes.size() < size) {
+            return Double.NaN;
         }
 
-        float instrument1Difference = instrument1Last - instrument1.pricing.minutePriceStreams.close.get(instrument1.pricing.minutePriceStreams.close.size() - size);
-        float instrument2Difference = instrument2Last - instrument2.pricing.minutePriceStreams.close.get(instrument2.pricing.minutePriceStreams.close.size() - size);
+        float last = closes.getLast();
+
+        if (last == 0) {
+            return Double.NaN;
+        }
 
-        return Float.compare(instrument1Difference / instrument1Last, instrument2Difference / instrument2Last);
+        return (last - closes.get(closes.size() - size)) / last;
     }
 
     public void check() {
         // TODO: This should possibly run every 15 minutes 10 seconds
-        resort();
         setTopTen();
         setBottomTen();
     }
@@ -126,7 +171,7 @@ public class SPEnsembleStrategy extends MultiBaseStrategy {
         addStrategiesNotInList(fifteenMinutesTopTen, topTenFifteenMinutes);
         removeStrategiesNotInList(fifteenMinutesTopTen, topTenFifteenMinutes);
 
-        topTenThirtyMinutes = thirtyMinutesTopTen;
+        topTenFifteenMinutes = fifteenMinutesTopTen;
     }
 
     public void setBottomTen() {
@@ -150,34 +195,29 @@ public class SPEnsembleStrategy extends MultiBaseStrategy {
         bottomTenFifteenMinutes = fifteenMinutesBottomTen;
     }
 
-    public HashSet<String> getFirst10(ConcurrentSkipListSet<Instrument> set) {
-        Iterator<Instrument> iterator = set.iterator();
-        HashSet<String> first10 = new HashSet<>();
+    // Rankings are ascending, the first ten are the lowest changes
+    public HashSet<String> getFirst10(RankingIndex ranking) {
+        int[] ids = new int[10];
+        int count = ranking.bottom(10, ids);
 
-        for (int i = 0; i < 10; i++) {
-            if (!iterator.hasNext()) {
-                break;
-            }
+        return getSymbols(ids, count);
+    }
 
-            first10.add(iterator.next().symbol);
-        }
+    public HashSet<String> getLast10(RankingIndex ranking) {
+        int[] ids = new int[10];
+        int count = ranking.top(10, ids);
 
-        return first10;
+        return getSymbols(ids, count);
     }
 
-    public HashSet<String> getLast10(ConcurrentSkipListSet<Instrument> set) {
-        Iterator<Instrument> iterator = set.descendingIterator();
-        HashSet<String> last10 = new HashSet<>();
-
-        for (int i = 0; i < 10; i++) {
-            if (!iterator.hasNext()) {
-                break;
-            }
+    private HashSet<String> getSymbols(int[] ids, int count) {
+        HashSet<String> symbols = new HashSet<>();
 
-            last10.add(iterator.next().symbol);
+        for (int i = 0; i < count; i++) {
+            symbols.add(instrumentManager.symbolTable.getSymbol(ids[i]));
         }
 
-        return last10;
+        return symbols;
     }
 
     public void addStrategiesNotInList(HashSet<String> newList, HashSet<String> oldList) {
@@ -22,6 +22,8 @@ import relativity.brokers.paper.PositionManager;
 import relativity.events.EventService;
 import relativity.instruments.PriceMovement;
 import relativity.instruments.InstrumentManager;
+import relativity.instruments.StatisticsDemand;
+import relativity.instruments.SymbolIndexedArray;
 import relativity.instruments.types.MarketHoursEnum;
 import relativity.instruments.types.Instrument;
 import org.tinylog.Logger;
@@ -38,8 +40,9 @@ public abstract class AbstractStrategyListener {
     boolean minuteListenerActive = true;
 
     ConcurrentHashMap<String, String> minuteMovers = new ConcurrentHashMap<>();
-    ConcurrentHashMap<String, SecondMovers> secondMovers = new ConcurrentHashMap<>();
-    ConcurrentHashMap<String, FastMover> fastMovers = new ConcurrentHashMap<>();
+    // Indexed by SymbolTable id
+    SymbolIndexedArray<SecondMovers> secondMovers = new SymbolIndexedArray<>();
+    SymbolIndexedArray<FastMover> fastMovers = new SymbolIndexedArray<>();
 
     // TODO: Set Market start and end time for this listener
 
@@ -74,6 +77,13 @@ public abstract class AbstractStrategyListener {
         }
     }
 
+    /**
+     * StatisticsDemand mask of the metrics this listener reads for every symbol
+     */
+    public int getRequiredStatistics() {
+        return StatisticsDemand.NONE;
+    }
+
     public void initializeTimes() {
         // Set the market hours class member
         MarketHoursService marketHoursService = new MarketHoursService();
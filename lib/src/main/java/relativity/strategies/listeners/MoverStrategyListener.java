@@ -22,13 +22,21 @@ import relativity.brokers.types.Position;
 import relativity.brokers.types.PositionTypeEnum;
 import relativity.events.types.ActivateStrategyEvent;
 import relativity.instruments.PriceMovement;
+import relativity.instruments.StatisticsDemand;
+import relativity.instruments.StatisticsMetricEnum;
 import relativity.instruments.types.MarketHoursEnum;
 import relativity.instruments.types.MovementEnum;
 import relativity.instruments.types.Instrument;
+import relativity.instruments.types.InstrumentSnapshot;
 import org.tinylog.Logger;
 
 public class MoverStrategyListener extends AbstractStrategyListener {
 
+    @Override
+    public int getRequiredStatistics() {
+        return StatisticsDemand.mask(StatisticsMetricEnum.VOLUME, StatisticsMetricEnum.MOVEMENT);
+    }
+
     public boolean second(Instrument instrument, PriceMovement priceMovement) {
         long currentTimeMillis = System.currentTimeMillis();
         long fifteenSecondsAgo = currentTimeMillis - (1000 * 15);
@@ -43,8 +51,16 @@ public class MoverStrategyListener extends AbstractStrategyListener {
             : 20_000;
 
         Position latestPosition = positionManager.getLatestPosition(instrument.symbol);
-        FastMover fastMover = fastMovers.get(instrument.symbol);
-        Long lastVolume = instrument.pricing.priceStreams.volume.get(instrument.pricing.priceStreams.volume.size() - 1);
+        FastMover fastMover = fastMovers.get(instrument.id);
+        SecondMovers secondMover = secondMovers.get(instrument.id);
+        // Runs off the symbol's shard, so everything is read from the published bar
+        InstrumentSnapshot snapshot = instrument.getSnapshot();
+
+        if (snapshot == null) {
+            return false;
+        }
+
+        long lastVolume = snapshot.volume;
 
         /*** Temporary logging for debugging ***/
 //        if (
@@ -67,27 +83,24 @@ public class MoverStrategyListener extends AbstractStrategyListener {
                   )
                 ) ||
                 (
-                    instrument.statistics.volume.average != null &&
-                    instrument.statistics.volume.average * priceMovement.close > liquidityThreshold &&
-                    priceMovement.volume >= instrument.statistics.volume.average * 2
+                    !Float.isNaN(snapshot.volumeAverage) &&
+                    snapshot.volumeAverage * priceMovement.close > liquidityThreshold &&
+                    priceMovement.volume >= snapshot.volumeAverage * 2
                 )
             ) &&
-            instrument.pricing.priceStreams.volume.size() > 10 &&
-            instrument.statistics.movement.movement != null &&
+            snapshot.barCount > 10 &&
+            snapshot.movement != null &&
             priceMovement.volume > volumeThreshold &&
 //            priceMovement.close > 7 &&
             (
-                !secondMovers.containsKey(instrument.symbol) ||
-                (
-                    secondMovers.containsKey(instrument.symbol) &&
-                    secondMovers.get(instrument.symbol).time < fifteenSecondsAgo
-                )
+                secondMover == null ||
+                secondMover.time < fifteenSecondsAgo
             ) &&
             (
               latestPosition == null ||
               latestPosition.closedAt < thirtySecondsAgo
             ) &&
-            Math.abs(instrument.statistics.movement.percentChange) > 0.003 /*&&
+            Math.abs(snapshot.percentChange) > 0.003 /*&&
             security.statistics.volatility.atrPercentage < 1.5*/
         ) {
             if (fastMover == null) {
@@ -98,22 +111,22 @@ public class MoverStrategyListener extends AbstractStrategyListener {
             fastMover.price = priceMovement.close;
             fastMover.volume = lastVolume;
 
-            fastMovers.put(instrument.symbol, fastMover);
-            secondMovers.put(instrument.symbol, new SecondMovers(instrument.symbol, fastMover.time));
+            fastMovers.set(instrument.id, fastMover);
+            secondMovers.set(instrument.id, new SecondMovers(instrument.symbol, fastMover.time));
 
-            Logger.info(instrument.symbol + " Mover! Liquidity: " + instrument.statistics.volume.average * priceMovement.close +
-                " Average: " + instrument.statistics.volume.average + " Volume: " + priceMovement.volume +
-                " Close: " + priceMovement.close + " Movement: " + instrument.statistics.movement.movement +
-                " " + String.format("%.4f", instrument.statistics.movement.percentChange) + " ATR: " + String.format("%.4f", instrument.statistics.volatility.atr) +
-                " ATR Percentage: " + String.format("%.4f", instrument.statistics.volatility.atrPercentage) +
-                " buyRatio: " + String.format("%.4f", instrument.quoteStatistics.spread.buyRatio) +
-                " sellRatio: " + String.format("%.4f", instrument.quoteStatistics.spread.sellRatio) +
-                " bidMovement: " + instrument.quoteStatistics.bidMovement.movement + " askMovement: " + instrument.quoteStatistics.askMovement.movement);
+            Logger.info(instrument.symbol + " Mover! Liquidity: " + snapshot.volumeAverage * priceMovement.close +
+                " Average: " + snapshot.volumeAverage + " Volume: " + priceMovement.volume +
+                " Close: " + priceMovement.close + " Movement: " + snapshot.movement +
+                " " + String.format("%.4f", snapshot.percentChange) + " ATR: " + String.format("%.4f", snapshot.atr) +
+                " ATR Percentage: " + String.format("%.4f", snapshot.atrPercentage) +
+                " buyRatio: " + String.format("%.4f", snapshot.buyRatio) +
+                " sellRatio: " + String.format("%.4f", snapshot.sellRatio) +
+                " bidMovement: " + snapshot.bidMovement + " askMovement: " + snapshot.askMovement);
 
             eventService.processEvent(new ActivateStrategyEvent(
                 "MoverStrategy",
             instrument,
-                instrument.statistics.movement.movement == MovementEnum.UP
+                snapshot.movement == MovementEnum.UP
                     ? PositionTypeEnum.LONG
                     : PositionTypeEnum.SHORT
             ));
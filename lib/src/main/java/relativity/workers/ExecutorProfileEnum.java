@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.workers;
+
+public enum ExecutorProfileEnum {
+    // Bounded pool of platform threads for general background work
+    PLATFORM("platform"),
+    // A new virtual thread per task for bursty or blocking work
+    VIRTUAL("virtual"),
+    // Small set of dedicated max priority threads for latency critical work. The JDK
+    // can not bind threads to cores, so they are only pinned in that they are never
+    // shared with other work; isolating cores is left to the OS (taskset, isolcpus)
+    PINNED("pinned");
+
+    public final String value;
+
+    ExecutorProfileEnum(String value) {
+        this.value = value;
+    }
+}
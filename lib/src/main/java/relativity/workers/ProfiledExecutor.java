@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.workers;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wraps an executor for a single profile and keeps
+ * track of the queue depth and the task latency
+ */
+public class ProfiledExecutor implements Executor {
+    public final ExecutorProfileEnum profile;
+    public final String name;
+    private final ExecutorService executor;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final LongAdder completedTasks = new LongAdder();
+    private final LongAdder queuedNanos = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Long::max, 0);
+
+    public ProfiledExecutor(ExecutorProfileEnum profile, ExecutorService executor) {
+        this(profile, profile.value, executor);
+    }
+
+    public ProfiledExecutor(ExecutorProfileEnum profile, String name, ExecutorService executor) {
+        this.profile = profile;
+        this.name = name;
+        this.executor = executor;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        long submittedAt = System.nanoTime();
+        queueDepth.incrementAndGet();
+
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                queueDepth.decrementAndGet();
+
+                try {
+                    task.run();
+                } finally {
+                    long endedAt = System.nanoTime();
+
+                    queuedNanos.add(startedAt - submittedAt);
+                    runNanos.add(endedAt - startedAt);
+                    maxLatencyNanos.accumulate(endedAt - submittedAt);
+                    completedTasks.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queueDepth.decrementAndGet();
+
+            throw e;
+        }
+    }
+
+    /**
+     * Tasks submitted but not yet started
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getCompletedTasks() {
+        return completedTasks.sum();
+    }
+
+    public double getAverageQueueMicros() {
+        long completed = completedTasks.sum();
+
+        return completed > 0 ? queuedNanos.sum() / 1000.0 / completed : 0;
+    }
+
+    public double getAverageRunMicros() {
+        long completed = completedTasks.sum();
+
+        return completed > 0 ? runNanos.sum() / 1000.0 / completed : 0;
+    }
+
+    public double getMaxLatencyMicros() {
+        return maxLatencyNanos.get() / 1000.0;
+    }
+
+    public void resetStatistics() {
+        completedTasks.reset();
+        queuedNanos.reset();
+        runNanos.reset();
+        maxLatencyNanos.reset();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public String toString() {
+        return name + " queue: " + getQueueDepth() +
+            " completed: " + getCompletedTasks() +
+            " avg queued: " + String.format("%.1f", getAverageQueueMicros()) + " µs" +
+            " avg run: " + String.format("%.1f", getAverageRunMicros()) + " µs" +
+            " max latency: " + String.format("%.1f", getMaxLatencyMicros()) + " µs";
+    }
+}
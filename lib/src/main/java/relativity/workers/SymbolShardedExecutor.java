@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.workers;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+/**
+ * Routes work onto a fixed set of single threaded shards by symbol.
+ * Everything submitted for one symbol runs in order on the same
+ * thread, so per-symbol state needs no locking between handlers
+ */
+public class SymbolShardedExecutor {
+    private final ProfiledExecutor[] shards;
+
+    public SymbolShardedExecutor(int shardCount) {
+        if (shardCount < 1) {
+            throw new Error("Shard count must be at least 1");
+        }
+
+        shards = new ProfiledExecutor[shardCount];
+
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new ProfiledExecutor(
+                ExecutorProfileEnum.PINNED,
+                "shard-" + i,
+                Executors.newSingleThreadExecutor(ThreadPool.namedThreadFactory("relativity-shard-" + i, Thread.MAX_PRIORITY))
+            );
+        }
+    }
+
+    public int getShardIndex(String symbol) {
+        return (symbol.hashCode() & 0x7fffffff) % shards.length;
+    }
+
+    public ProfiledExecutor getShard(String symbol) {
+        return shards[getShardIndex(symbol)];
+    }
+
+    public void execute(String symbol, Runnable task) {
+        getShard(symbol).execute(task);
+    }
+
+    public CompletableFuture runAsync(String symbol, Runnable task) {
+        return CompletableFuture.runAsync(task, getShard(symbol));
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public ProfiledExecutor[] getShards() {
+        return shards;
+    }
+
+    public void shutdown() {
+        for (ProfiledExecutor shard : shards) {
+            shard.shutdown();
+        }
+    }
+}
@@ -17,16 +17,67 @@
 
 package relativity.workers;
 
+import org.tinylog.Logger;
+
+import java.util.EnumMap;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ThreadPool {
     public ScheduledExecutorService pool;
     public ExecutorService fixedThreadPool;
 
+    /**************************************************************************
+     * Executor Profiles
+     *************************************************************************/
+
+    public final EnumMap<ExecutorProfileEnum, ProfiledExecutor> executors = new EnumMap<>(ExecutorProfileEnum.class);
+    public final SymbolShardedExecutor shards;
+
+    // Shared by every strategy timer, tasks run on the platform profile
+    public final TimingWheel timingWheel;
+
     public ThreadPool() {
+        this(15, 2, 100_000, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param platformThreads Threads for the bounded platform profile
+     * @param pinnedThreads Dedicated threads for latency critical work (ticks, fills)
+     * @param queueCapacity Maximum queued tasks for the platform profile before
+     *                      the submitting thread runs the task itself
+     * @param shardCount Single threaded shards for per-symbol ordered work
+     */
+    public ThreadPool(int platformThreads, int pinnedThreads, int queueCapacity, int shardCount) {
 //        pool = Executors.newScheduledThreadPool(16, new AffinityThreadFactory("bg", SAME_CORE, DIFFERENT_SOCKET, ANY));
-        pool = Executors.newScheduledThreadPool(15);
+        pool = Executors.newScheduledThreadPool(4, namedThreadFactory("relativity-scheduler", Thread.NORM_PRIORITY));
 //        fixedThreadPool = Executors.newFixedThreadPool(15);
+
+        executors.put(ExecutorProfileEnum.PLATFORM, new ProfiledExecutor(
+            ExecutorProfileEnum.PLATFORM,
+            new ThreadPoolExecutor(
+                platformThreads,
+                platformThreads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                namedThreadFactory("relativity-platform", Thread.NORM_PRIORITY),
+                new ThreadPoolExecutor.CallerRunsPolicy()
+            )
+        ));
+
+        executors.put(ExecutorProfileEnum.VIRTUAL, new ProfiledExecutor(
+            ExecutorProfileEnum.VIRTUAL,
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("relativity-virtual-", 0).factory())
+        ));
+
+        executors.put(ExecutorProfileEnum.PINNED, new ProfiledExecutor(
+            ExecutorProfileEnum.PINNED,
+            Executors.newFixedThreadPool(pinnedThreads, namedThreadFactory("relativity-pinned", Thread.MAX_PRIORITY))
+        ));
+
+        shards = new SymbolShardedExecutor(shardCount);
+        timingWheel = new TimingWheel(10, 512, executors.get(ExecutorProfileEnum.PLATFORM));
     }
 
     public void execute(Runnable task) {
@@ -35,6 +86,13 @@ public class ThreadPool {
 
     public void shutdown() {
         pool.shutdown();
+
+        for (ProfiledExecutor executor : executors.values()) {
+            executor.shutdown();
+        }
+
+        shards.shutdown();
+        timingWheel.stop();
     }
 
     public void scheduleAtFixedRate(Runnable task, int initialDelay, int period, TimeUnit unit) {
@@ -50,7 +108,43 @@ public class ThreadPool {
     }
 
     public CompletableFuture runAsync(Runnable task) {
-        // TODO: How to supply our own executor/thread pool here
-        return CompletableFuture.runAsync(task);
+        return runAsync(ExecutorProfileEnum.PLATFORM, task);
+    }
+
+    public CompletableFuture runAsync(ExecutorProfileEnum profile, Runnable task) {
+        return CompletableFuture.runAsync(task, executors.get(profile));
+    }
+
+    /**
+     * Runs the task on the shard that owns the symbol,
+     * after any work already submitted for that symbol
+     */
+    public CompletableFuture runForSymbol(String symbol, Runnable task) {
+        return shards.runAsync(symbol, task);
+    }
+
+    public ProfiledExecutor getExecutor(ExecutorProfileEnum profile) {
+        return executors.get(profile);
+    }
+
+    public void logStatistics() {
+        for (ProfiledExecutor executor : executors.values()) {
+            Logger.info(executor);
+        }
+
+        for (ProfiledExecutor shard : shards.getShards()) {
+            Logger.info(shard);
+        }
+    }
+
+    static ThreadFactory namedThreadFactory(String name, int priority) {
+        AtomicInteger counter = new AtomicInteger();
+
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + counter.incrementAndGet());
+            thread.setPriority(priority);
+
+            return thread;
+        };
     }
 }
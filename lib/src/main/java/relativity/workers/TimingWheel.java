@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.workers;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel shared by every strategy.
+ * A single ticker thread advances the wheel one bucket per tick and hands
+ * expired tasks to an executor, so thousands of timers cost one thread.
+ * Delays longer than a full turn of the wheel wait out the extra rounds
+ * in their bucket. Scheduling and cancelling are constant time: both only
+ * queue the change, and the ticker applies it on its next tick.
+ */
+public class TimingWheel {
+    private static final int INIT = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long tickNanos;
+    private final Executor executor;
+
+    private final ConcurrentLinkedQueue<Timeout> pendingAdds = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Timeout> pendingCancels = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile boolean running = false;
+    private Thread ticker;
+    private long startTime;
+    private long tick = 0;
+
+    /**
+     * @param tickMillis Resolution of the wheel
+     * @param wheelSize Buckets per turn, rounded up to a power of two
+     * @param executor Runs the expired tasks
+     */
+    public TimingWheel(long tickMillis, int wheelSize, Executor executor) {
+        int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+
+        this.wheel = new Bucket[size];
+        this.mask = size - 1;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.executor = executor;
+
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+    }
+
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return add(new Timeout(this, task, unit.toNanos(delay), 0));
+    }
+
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new Error("Period must be greater than 0");
+        }
+
+        return add(new Timeout(this, task, unit.toNanos(initialDelay), unit.toNanos(period)));
+    }
+
+    /**
+     * Timers scheduled and not yet expired or cancelled
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        // Written before the volatile flag so producers see it once running is set
+        startTime = System.nanoTime();
+        running = true;
+
+        ticker = new Thread(this::run, "relativity-timing-wheel");
+        ticker.start();
+    }
+
+    public void stop() {
+        running = false;
+
+        if (ticker != null) {
+            LockSupport.unpark(ticker);
+        }
+    }
+
+    private Timeout add(Timeout timeout) {
+        if (!running) {
+            start();
+        }
+
+        timeout.deadline = System.nanoTime() - startTime + timeout.deadline;
+        pending.incrementAndGet();
+        pendingAdds.add(timeout);
+
+        return timeout;
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = waitForNextTick();
+
+            if (!running) {
+                break;
+            }
+
+            processCancels();
+            transferPendingAdds();
+
+            wheel[(int) (tick & mask)].expire(deadline);
+            tick++;
+        }
+    }
+
+    private long waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+
+        while (running) {
+            long remaining = deadline - (System.nanoTime() - startTime);
+
+            if (remaining <= 0) {
+                break;
+            }
+
+            LockSupport.parkNanos(remaining);
+        }
+
+        return deadline;
+    }
+
+    private void processCancels() {
+        Timeout timeout;
+
+        while ((timeout = pendingCancels.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferPendingAdds() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = pendingAdds.poll();
+
+            if (timeout == null) {
+                break;
+            }
+
+            if (timeout.state.get() == CANCELLED) {
+                continue;
+            }
+
+            long calculated = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+
+            // Deadlines already in the past go in the current bucket
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private void fire(Timeout timeout) {
+        if (timeout.period == 0) {
+            if (!timeout.state.compareAndSet(INIT, EXPIRED)) {
+                return;
+            }
+
+            pending.decrementAndGet();
+        } else if (timeout.state.get() != INIT) {
+            return;
+        } else {
+            // Fixed rate, armed again from the original deadline on the next tick
+            timeout.deadline += timeout.period;
+            pendingAdds.add(timeout);
+        }
+
+        executor.execute(() -> {
+            try {
+                timeout.task.run();
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    public static class Timeout {
+        private final TimingWheel wheel;
+        private final Runnable task;
+        private final long period;
+        private final AtomicInteger state = new AtomicInteger(INIT);
+
+        // Only touched by the ticker thread
+        private long deadline;
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout previous;
+
+        private Timeout(TimingWheel wheel, Runnable task, long delay, long period) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = delay;
+            this.period = period;
+        }
+
+        public boolean cancel() {
+            if (!state.compareAndSet(INIT, CANCELLED)) {
+                return false;
+            }
+
+            wheel.pending.decrementAndGet();
+            wheel.pendingCancels.add(this);
+
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+    }
+
+    /**
+     * Doubly linked list of timeouts, only touched by the ticker thread
+     */
+    private class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire(long deadline) {
+            Timeout timeout = head;
+
+            while (timeout != null) {
+                Timeout next = timeout.next;
+
+                if (timeout.state.get() == CANCELLED) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+
+                    if (timeout.deadline <= deadline) {
+                        fire(timeout);
+                    } else {
+                        // Not due in this round after all, place it again
+                        pendingAdds.add(timeout);
+                    }
+                } else {
+                    timeout.remainingRounds--;
+                }
+
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            } else {
+                tail = timeout.previous;
+            }
+
+            timeout.next = null;
+            timeout.previous = null;
+            timeout.bucket = null;
+        }
+    }
+}
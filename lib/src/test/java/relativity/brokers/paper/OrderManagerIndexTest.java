@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.brokers.paper;
+
+import relativity.brokers.types.Order;
+import relativity.brokers.types.OrderFill;
+import relativity.brokers.types.OrderIntentEnum;
+import relativity.brokers.types.OrderOptions;
+import relativity.brokers.types.OrderSideEnum;
+import relativity.brokers.types.OrderStatusEnum;
+import relativity.brokers.types.OrderTypeEnum;
+import relativity.brokers.types.Position;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+// The open order indexes and order books have to agree with orders and pastOrders after every change
+public class OrderManagerIndexTest {
+    static final String ACCOUNT_ID = "test";
+    static final String SYMBOL = "AAPL";
+
+    private OrderManager orderManager;
+    private UUID strategyId;
+
+    @BeforeMethod
+    public void createOrderManager() {
+        strategyId = UUID.randomUUID();
+
+        // Replacing creates the new order, which needs the instrument, account and event services
+        orderManager = new OrderManager(null) {
+            @Override
+            public Order createOrder(OrderOptions options, boolean isChild) {
+                Order order = newOrder(options.symbol, options.strategyId, options.side, options.intent, options.limitPrice);
+
+                if (!isChild) {
+                    addToOpenOrders(order);
+                }
+
+                return order;
+            }
+        };
+    }
+
+    @Test
+    public void addIndexesTheOrder() {
+        Order buy = open(SYMBOL, OrderSideEnum.BUY, 10.0f);
+        Order sell = open("MSFT", OrderSideEnum.SELL, 20.0f);
+
+        assertConsistent();
+        assertTrue(orderManager.hasBuyOrdersForSymbol(SYMBOL, ACCOUNT_ID));
+        assertFalse(orderManager.hasSellOrdersForSymbol(SYMBOL, ACCOUNT_ID));
+        assertSame(orderManager.findOrderForSymbol("MSFT", ACCOUNT_ID), sell);
+        assertEquals(orderManager.findOrdersForStrategy(strategyId).size(), 2);
+        assertEquals(orderManager.getOrderBook(SYMBOL).getBestBuyPrice(), buy.limitPrice);
+    }
+
+    @Test
+    public void addingTheSameOrderTwiceIndexesItOnce() {
+        Order order = open(SYMBOL, OrderSideEnum.BUY, 10.0f);
+
+        orderManager.addToOpenOrders(order);
+
+        assertConsistent();
+        assertEquals(orderManager.getOrdersForSymbol(SYMBOL).size(), 1);
+    }
+
+    @Test
+    public void fillArchivesTheOrder() {
+        Order order = open(SYMBOL, OrderSideEnum.BUY, 10.0f);
+
+        orderManager.fulfillOrder(order, fills(order, order.quantity));
+
+        assertEquals(order.status, OrderStatusEnum.FILLED);
+        assertNull(orderManager.findOrder(order.id));
+        assertSame(orderManager.findPastOrder(order.id), order);
+        assertTrue(orderManager.hasPastOrdersForStrategy(strategyId));
+        assertTrue(orderManager.hasPastOpenOrdersForStrategy(strategyId));
+        assertTrue(orderManager.getOrderBook(SYMBOL).isEmpty());
+        assertConsistent();
+    }
+
+    @Test
+    public void partialFillKeepsTheOrderOpen() {
+        Order order = open(SYMBOL, OrderSideEnum.BUY, 10.0f);
+
+        orderManager.fulfillOrder(order, fills(order, 40.0f));
+
+        assertSame(orderManager.findOrder(order.id), order);
+        assertFalse(orderManager.hasPastOrdersForStrategy(strategyId));
+        assertConsistent();
+
+        orderManager.fulfillOrder(order, fills(order, 60.0f));
+
+        assertEquals(order.status, OrderStatusEnum.FILLED);
+        assertNull(orderManager.findOrder(order.id));
+        assertConsistent();
+    }
+
+    @Test
+    public void fillActivatesChildOrders() {
+        Order order = open(SYMBOL, OrderSideEnum.BUY, 10.0f);
+        Order takeProfit = newOrder(SYMBOL, strategyId, OrderSideEnum.SELL, OrderIntentEnum.CLOSE, 11.0f);
+        takeProfit.status = OrderStatusEnum.PENDING_ACTIVATION;
+        order.childOrders.add(takeProfit);
+
+        orderManager.fulfillOrder(order, fills(order, order.quantity));
+
+        assertSame(orderManager.findOrder(takeProfit.id), takeProfit);
+        assertEquals(orderManager.getOrderBook(SYMBOL).getBestSellPrice(), takeProfit.limitPrice);
+        assertConsistent();
+    }
+
+    @Test
+    public void cancelArchivesTheOrderAndItsChildren() {
+        Order order = open(SYMBOL, OrderSideEnum.BUY, 10.0f);
+        Order takeProfit = newOrder(SYMBOL, strategyId, OrderSideEnum.SELL, OrderIntentEnum.CLOSE, 11.0f);
+        takeProfit.status = OrderStatusEnum.WORKING;
+        order.childOrders.add(takeProfit);
+
+        orderManager.cancelOrder(order);
+
+        assertEquals(order.status, OrderStatusEnum.CANCELED);
+        assertEquals(takeProfit.status, OrderStatusEnum.CANCELED);
+        assertSame(orderManager.findPastOrder(order.id), order);
+        assertSame(orderManager.findPastOrder(takeProfit.id), takeProfit);
+        assertTrue(orderManager.getOrderBook(SYMBOL).isEmpty());
+        assertConsistent();
+    }
+
+    @Test
+    public void replaceSwapsTheOrderInTheIndexes() {
+        Order order = open(SYMBOL, OrderSideEnum.BUY, 10.0f);
+
+        Order replacement = orderManager.replaceOrderWithPrice(order, 9.5f);
+
+        assertNotNull(replacement);
+        assertEquals(order.status, OrderStatusEnum.REPLACED);
+        assertNull(orderManager.findOrder(order.id));
+        assertSame(orderManager.findOrder(replacement.id), replacement);
+        assertEquals(orderManager.findOrdersForStrategy(strategyId, SYMBOL).size(), 1);
+        assertEquals(orderManager.getOrderBook(SYMBOL).getBestBuyPrice(), 9.5f);
+        assertConsistent();
+    }
+
+    @Test
+    public void positionIndexFollowsTheOrder() {
+        Order order = open(SYMBOL, OrderSideEnum.SELL, 11.0f);
+        order.intent = OrderIntentEnum.CLOSE;
+
+        Position position = new Position();
+        position.id = "position";
+        orderManager.addPositionToOrder(order, position);
+
+        assertSame(orderManager.getCloseOrderForPosition(position), order);
+
+        orderManager.cancelOrder(order);
+
+        assertNull(orderManager.getOpenOrderForPosition(position));
+        assertConsistent();
+    }
+
+    private void assertConsistent() {
+        Set<Order> indexed = new HashSet<>();
+
+        for (Order order : orderManager.getOpenOrders()) {
+            assertTrue(orderManager.getOrdersForSymbol(order.symbol).contains(order), "symbol index is missing " + order.id);
+            assertTrue(orderManager.findOrdersForStrategy(order.strategyId).contains(order), "strategy index is missing " + order.id);
+            assertTrue(orderManager.findOrderForStrategy(order.strategyId, order.accountId).contains(order), "account index is missing " + order.id);
+            assertTrue(restingOrders(order.symbol).contains(order), "order book is missing " + order.id);
+
+            if (order.intent == OrderIntentEnum.CLOSE) {
+                for (Position position : order.positions) {
+                    assertTrue(orderManager.getClosingOrdersForPosition(position.id).contains(order), "position index is missing " + order.id);
+                }
+            }
+
+            indexed.addAll(orderManager.getOrdersForSymbol(order.symbol));
+        }
+
+        // Nothing indexed that is not open
+        assertEquals(indexed.size(), orderManager.getOpenOrders().size());
+
+        for (Order order : orderManager.pastOrders.values()) {
+            if (orderManager.findOrder(order.id) == order) {
+                continue;
+            }
+
+            assertFalse(orderManager.getOrdersForSymbol(order.symbol).contains(order), "archived order still indexed by symbol " + order.id);
+            assertFalse(orderManager.findOrdersForStrategy(order.strategyId).contains(order), "archived order still indexed by strategy " + order.id);
+            assertFalse(restingOrders(order.symbol).contains(order), "archived order still resting " + order.id);
+            assertTrue(orderManager.hasPastOrdersForStrategy(order.strategyId));
+        }
+    }
+
+    private Set<Order> restingOrders(String symbol) {
+        Set<Order> resting = new HashSet<>();
+        PaperOrderBook orderBook = orderManager.getOrderBook(symbol);
+
+        if (orderBook == null) {
+            return resting;
+        }
+
+        for (Set<Order> level : orderBook.getCrossedBuyOrders(0)) {
+            resting.addAll(level);
+        }
+
+        for (Set<Order> level : orderBook.getCrossedSellOrders(Float.MAX_VALUE)) {
+            resting.addAll(level);
+        }
+
+        resting.addAll(orderBook.getMarketOrders());
+
+        return resting;
+    }
+
+    private Order open(String symbol, OrderSideEnum side, float limitPrice) {
+        Order order = newOrder(symbol, strategyId, side, OrderIntentEnum.OPEN, limitPrice);
+
+        orderManager.addToOpenOrders(order);
+
+        return order;
+    }
+
+    private Order newOrder(String symbol, UUID strategyId, OrderSideEnum side, OrderIntentEnum intent, Float limitPrice) {
+        Order order = new Order();
+        order.id = UUID.randomUUID().toString();
+        order.symbol = symbol;
+        order.strategyId = strategyId;
+        order.accountId = ACCOUNT_ID;
+        order.side = side;
+        order.type = OrderTypeEnum.LIMIT;
+        order.intent = intent;
+        order.status = OrderStatusEnum.WORKING;
+        order.quantity = 100.0f;
+        order.filledQuantity = 0.0f;
+        order.limitPrice = limitPrice;
+        order.createdAt = System.currentTimeMillis();
+
+        return order;
+    }
+
+    private ArrayList<OrderFill> fills(Order order, float quantity) {
+        OrderFill fill = new OrderFill();
+        fill.id = UUID.randomUUID();
+        fill.orderId = order.id;
+        fill.accountId = order.accountId;
+        fill.quantity = quantity;
+        fill.price = order.limitPrice;
+        fill.createdAt = System.currentTimeMillis();
+
+        ArrayList<OrderFill> fills = new ArrayList<>();
+        fills.add(fill);
+
+        return fills;
+    }
+}
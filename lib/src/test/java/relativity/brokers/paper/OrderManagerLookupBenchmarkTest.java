@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.brokers.paper;
+
+import relativity.brokers.types.Order;
+import relativity.brokers.types.OrderIntentEnum;
+import relativity.brokers.types.OrderSideEnum;
+import relativity.brokers.types.OrderStatusEnum;
+import relativity.brokers.types.OrderTypeEnum;
+import org.testng.annotations.Test;
+import org.tinylog.Logger;
+
+import java.util.UUID;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * The open order queries are indexed by symbol, strategy and account, so a
+ * lookup should cost about the same with ten open orders as with ten thousand.
+ * Every symbol holds a buy and a sell from its own strategy, only the number of
+ * symbols grows. Timings depend on the machine, so this only logs them and is
+ * left out of the test task, run it with {@code gradle benchmark}.
+ */
+public class OrderManagerLookupBenchmarkTest {
+    static final int[] OPEN_ORDERS = { 10, 1_000, 10_000 };
+    static final String ACCOUNT_ID = "benchmark";
+    static final int WARMUP_LOOKUPS = 200_000;
+    static final int LOOKUPS = 1_000_000;
+    static final int ROUNDS = 5;
+
+    // Keeps the lookups from being optimized away
+    private long sink;
+
+    @Test(groups = "benchmark")
+    public void lookupLatencyAsOpenOrdersGrow() {
+        double smallest = 0;
+
+        for (int i = 0; i < OPEN_ORDERS.length; i++) {
+            double nanosPerLookup = measure(OPEN_ORDERS[i]);
+
+            if (i == 0) {
+                smallest = Math.max(nanosPerLookup, 1);
+            }
+
+            Logger.info(OPEN_ORDERS[i] + " open orders: " + String.format("%.1f", nanosPerLookup) + " ns per lookup, " + String.format("%.1f", nanosPerLookup / smallest) + "x the smallest");
+        }
+    }
+
+    private double measure(int openOrders) {
+        int symbolCount = openOrders / 2;
+        String[] symbols = new String[symbolCount];
+        UUID[] strategies = new UUID[symbolCount];
+        OrderManager orderManager = new OrderManager(null);
+
+        for (int i = 0; i < symbolCount; i++) {
+            symbols[i] = "SYM" + i;
+            strategies[i] = UUID.randomUUID();
+
+            orderManager.addToOpenOrders(createOrder(symbols[i], strategies[i], OrderSideEnum.BUY, 10.0f + i % 100));
+            orderManager.addToOpenOrders(createOrder(symbols[i], strategies[i], OrderSideEnum.SELL, 11.0f + i % 100));
+        }
+
+        assertEquals(orderManager.getOpenOrders().size(), openOrders);
+
+        lookup(orderManager, symbols, strategies, WARMUP_LOOKUPS);
+
+        double best = Double.MAX_VALUE;
+
+        // Best of a few rounds so a GC pause or a descheduled thread doesn't decide the result
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            lookup(orderManager, symbols, strategies, LOOKUPS);
+            best = Math.min(best, (double) (System.nanoTime() - start) / LOOKUPS);
+        }
+
+        assertTrue(sink > 0);
+
+        return best;
+    }
+
+    private void lookup(OrderManager orderManager, String[] symbols, UUID[] strategies, int lookups) {
+        for (int i = 0; i < lookups; i++) {
+            // Stride through the symbols so the larger books aren't served from one cache line
+            int index = (int) ((i * 7919L) % symbols.length);
+
+            switch (i & 3) {
+                case 0 -> sink += orderManager.findOrdersForStrategy(strategies[index], symbols[index], ACCOUNT_ID).size();
+                case 1 -> sink += orderManager.hasBuyOrdersForSymbol(symbols[index], ACCOUNT_ID) ? 1 : 0;
+                case 2 -> sink += orderManager.findOrderForSymbol(symbols[index], ACCOUNT_ID) != null ? 1 : 0;
+                default -> sink += orderManager.getOrderBook(symbols[index]).isEmpty() ? 0 : 1;
+            }
+        }
+    }
+
+    private Order createOrder(String symbol, UUID strategyId, OrderSideEnum side, float limitPrice) {
+        Order order = new Order();
+        order.id = UUID.randomUUID().toString();
+        order.symbol = symbol;
+        order.strategyId = strategyId;
+        order.accountId = ACCOUNT_ID;
+        order.side = side;
+        order.type = OrderTypeEnum.LIMIT;
+        order.intent = OrderIntentEnum.OPEN;
+        order.status = OrderStatusEnum.WORKING;
+        order.quantity = 100.0f;
+        order.filledQuantity = 0.0f;
+        order.limitPrice = limitPrice;
+        order.createdAt = System.currentTimeMillis();
+
+        return order;
+    }
+}
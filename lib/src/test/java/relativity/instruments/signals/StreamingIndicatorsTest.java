@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2024. Relativity Software. All Rights Reserved.
+ *
+ * Licensed under the Functional Source License, Version 1.1 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the license at
+ *
+ * https://github.com/Relativity-Software/relativity/blob/main/LICENSE.md
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ==============================================================================
+ */
+
+package relativity.instruments.signals;
+
+import relativity.instruments.PriceMovement;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBarSeriesBuilder;
+import org.ta4j.core.indicators.ATRIndicator;
+import org.ta4j.core.indicators.EMAIndicator;
+import org.ta4j.core.indicators.RSIIndicator;
+import org.ta4j.core.indicators.SMAIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+import org.ta4j.core.indicators.statistics.StandardDeviationIndicator;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+
+// The streaming indicators replaced ta4j in the statistics path, so they have to agree with it bar for bar
+public class StreamingIndicatorsTest {
+    static final int BARS = 500;
+    static final double TOLERANCE = 1e-6;
+
+    private final ArrayList<PriceMovement> prices = new ArrayList<>();
+    private BarSeries series;
+    private ClosePriceIndicator closes;
+
+    @BeforeClass
+    public void createBars() {
+        Random random = new Random(42);
+        ZonedDateTime time = ZonedDateTime.of(2024, 1, 2, 14, 30, 0, 0, ZoneOffset.UTC);
+        float close = 25.0f;
+
+        series = new BaseBarSeriesBuilder().withName("streaming").build();
+
+        for (int i = 0; i < BARS; i++) {
+            float open = close;
+
+            // A few flat bars so the zero gain and zero loss paths are covered too
+            close = i % 50 < 3
+                ? open
+                : Math.max(1.0f, open + (float) (random.nextGaussian() * 0.15));
+
+            PriceMovement price = new PriceMovement();
+            price.open = open;
+            price.close = close;
+            price.high = Math.max(open, close) + (float) (random.nextDouble() * 0.1);
+            price.low = Math.min(open, close) - (float) (random.nextDouble() * 0.1);
+            price.volume = 100 + random.nextInt(10_000);
+
+            prices.add(price);
+
+            time = time.plusSeconds(1);
+            series.addBar(time, (double) price.open, (double) price.high, (double) price.low, (double) price.close, (double) price.volume);
+        }
+
+        closes = new ClosePriceIndicator(series);
+    }
+
+    @Test
+    public void rsiMatchesTa4j() {
+        StreamingIndicators indicators = new StreamingIndicators();
+        RSIIndicator expected = new RSIIndicator(closes, StreamingIndicators.PERIOD);
+
+        for (int i = 0; i < BARS; i++) {
+            indicators.update(prices.get(i));
+
+            assertEquals(indicators.rsi.getValue(), expected.getValue(i).doubleValue(), TOLERANCE, "RSI at bar " + i);
+        }
+    }
+
+    @Test
+    public void atrMatchesTa4j() {
+        StreamingIndicators indicators = new StreamingIndicators();
+        ATRIndicator expected = new ATRIndicator(series, StreamingIndicators.PERIOD);
+
+        for (int i = 0; i < BARS; i++) {
+            indicators.update(prices.get(i));
+
+            assertEquals(indicators.atr.getValue(), expected.getValue(i).doubleValue(), TOLERANCE, "ATR at bar " + i);
+        }
+    }
+
+    @Test
+    public void smaMatchesTa4j() {
+        StreamingIndicators indicators = new StreamingIndicators();
+        SMAIndicator expected = new SMAIndicator(closes, StreamingIndicators.PERIOD);
+
+        for (int i = 0; i < BARS; i++) {
+            indicators.update(prices.get(i));
+
+            assertEquals(indicators.sma.getValue(), expected.getValue(i).doubleValue(), TOLERANCE, "SMA at bar " + i);
+        }
+    }
+
+    @Test
+    public void emaMatchesTa4j() {
+        StreamingIndicators indicators = new StreamingIndicators();
+        EMAIndicator expected = new EMAIndicator(closes, StreamingIndicators.PERIOD);
+
+        for (int i = 0; i < BARS; i++) {
+            indicators.update(prices.get(i));
+
+            assertEquals(indicators.ema.getValue(), expected.getValue(i).doubleValue(), TOLERANCE, "EMA at bar " + i);
+        }
+    }
+
+    @Test
+    public void standardDeviationMatchesTa4j() {
+        StreamingIndicators indicators = new StreamingIndicators();
+        StandardDeviationIndicator expected = new StandardDeviationIndicator(closes, StreamingIndicators.PERIOD);
+
+        for (int i = 0; i < BARS; i++) {
+            indicators.update(prices.get(i));
+
+            assertEquals(indicators.variance.getStandardDeviation(), expected.getValue(i).doubleValue(), TOLERANCE, "Standard deviation at bar " + i);
+        }
+    }
+
+    @Test
+    public void vwapMatchesSessionSums() {
+        StreamingIndicators indicators = new StreamingIndicators();
+        double priceVolumeSum = 0;
+        double volumeSum = 0;
+
+        for (int i = 0; i < BARS; i++) {
+            PriceMovement price = prices.get(i);
+            double typicalPrice = ((double) price.high + price.low + price.close) / 3;
+
+            priceVolumeSum += typicalPrice * price.volume;
+            volumeSum += price.volume;
+
+            indicators.update(price);
+
+            assertEquals(indicators.vwap.getValue(), priceVolumeSum / volumeSum, TOLERANCE, "VWAP at bar " + i);
+        }
+
+        assertEquals(indicators.vwap.getVolume(), (long) volumeSum);
+    }
+
+    @Test
+    public void resetStartsOver() {
+        StreamingIndicators indicators = new StreamingIndicators();
+        RSIIndicator expected = new RSIIndicator(closes, StreamingIndicators.PERIOD);
+
+        for (int i = 0; i < BARS / 2; i++) {
+            indicators.update(prices.get(BARS - 1 - i));
+        }
+
+        indicators.reset();
+
+        for (int i = 0; i < BARS; i++) {
+            indicators.update(prices.get(i));
+        }
+
+        assertEquals(indicators.rsi.getValue(), expected.getValue(BARS - 1).doubleValue(), TOLERANCE);
+    }
+}